@@ -0,0 +1,65 @@
+package com.example.reservation.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Map;
+
+/**
+ * Entities take their ids from pooled sequences (emulated by one-row tables on MySQL) so Hibernate
+ * can batch inserts. Rows created under the former AUTO_INCREMENT ids must never be handed out
+ * again, so each sequence is moved past the current maximum id before the first insert; a failure
+ * to do so fails startup rather than letting inserts collide on primary keys.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    // Must match the allocationSize of the @SequenceGenerator mappings
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "user", "user_seq",
+            "room", "room_seq",
+            "reservation", "reservation_seq",
+            "notification", "notification_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        SEQUENCES.forEach((table, sequence) -> {
+            if (!hasSequenceTable(sequence)) {
+                // Databases with native sequences have no table to align
+                logger.debug("Id sequence {} is not a table; not aligned", sequence);
+                return;
+            }
+            jdbcTemplate.update("UPDATE " + sequence + " SET next_val = GREATEST(next_val, " +
+                    "(SELECT COALESCE(MAX(id), 0) + " + (ALLOCATION_SIZE + 1) + " FROM `" + table + "`))");
+        });
+    }
+
+    private boolean hasSequenceTable(String sequence) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            boolean upperCase = metaData.storesUpperCaseIdentifiers();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null,
+                    upperCase ? sequence.toUpperCase() : sequence, upperCase ? "NEXT_VAL" : "next_val")) {
+                return columns.next();
+            }
+        }));
+    }
+}
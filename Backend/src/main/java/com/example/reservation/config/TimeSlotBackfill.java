@@ -0,0 +1,127 @@
+package com.example.reservation.config;
+
+import com.example.reservation.dto.ReservationSlot;
+import com.example.reservation.service.RoomOccupancyIndex;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reservations now carry their own start_time/end_time. Databases created before that still hold
+ * the range in a separate time_slot row; it is copied over and the orphaned rows deleted, in small
+ * id-range chunks so the tables are never locked for long. The copy runs in the background once the
+ * application is up; until it has finished, booking conflict checks also read the legacy rows.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class TimeSlotBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeSlotBackfill.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoomOccupancyIndex occupancyIndex;
+    private volatile boolean pending;
+
+    public TimeSlotBackfill(JdbcTemplate jdbcTemplate, RoomOccupancyIndex occupancyIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    // Fresh schemas have no time_slot table or time_slot_id column; anything else going wrong here fails startup
+    @PostConstruct
+    public void detect() {
+        pending = hasColumn("reservation", "time_slot_id") && hasColumn("time_slot", "start_time");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!pending) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "time-slot-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Whether a reservation whose range still lives only in time_slot overlaps [start, end)
+    public boolean overlapsPending(Long roomId, LocalDateTime start, LocalDateTime end) {
+        if (!pending) {
+            return false;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM reservation r JOIN time_slot t ON t.id = r.time_slot_id " +
+                "WHERE r.room_id = ? AND r.start_time IS NULL AND t.start_time < ? AND t.end_time > ?)",
+                Boolean.class, roomId, end, start));
+    }
+
+    // The reservations overlapping [start, end) whose range still lives only in time_slot, e.g. for imports
+    public List<ReservationSlot> pendingSlots(Long roomId, LocalDateTime start, LocalDateTime end) {
+        if (!pending) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT r.id, t.start_time, t.end_time FROM reservation r JOIN time_slot t ON t.id = r.time_slot_id " +
+                "WHERE r.room_id = ? AND r.start_time IS NULL AND t.start_time < ? AND t.end_time > ?",
+                (rs, rowNum) -> new ReservationSlot(rs.getLong(1), roomId,
+                        rs.getTimestamp(2).toLocalDateTime(), rs.getTimestamp(3).toLocalDateTime()),
+                roomId, end, start);
+    }
+
+    void backfill() {
+        try {
+            int copied = inChunks("reservation",
+                    "UPDATE reservation r JOIN time_slot t ON t.id = r.time_slot_id " +
+                    "SET r.start_time = t.start_time, r.end_time = t.end_time, r.time_slot_id = NULL " +
+                    "WHERE r.start_time IS NULL AND r.id BETWEEN ? AND ?");
+            if (copied > 0) {
+                // Merges the copied ranges; bookings made meanwhile are already in the index
+                occupancyIndex.load();
+            }
+            pending = false;
+            int deleted = inChunks("time_slot",
+                    "DELETE t FROM time_slot t LEFT JOIN reservation r ON r.time_slot_id = t.id " +
+                    "WHERE r.id IS NULL AND t.id BETWEEN ? AND ?");
+            logger.info("Moved {} reservation time ranges out of time_slot, deleted {} time_slot rows",
+                    copied, deleted);
+        } catch (DataAccessException e) {
+            logger.error("Backfilling reservation time ranges from time_slot failed; it is retried on the next start", e);
+        }
+    }
+
+    private boolean hasColumn(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            boolean upperCase = metaData.storesUpperCaseIdentifiers();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null,
+                    upperCase ? table.toUpperCase() : table, upperCase ? column.toUpperCase() : column)) {
+                return columns.next();
+            }
+        }));
+    }
+
+    private int inChunks(String table, String sql) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (maxId == null) {
+            return 0;
+        }
+        int total = 0;
+        for (long from = 0; from <= maxId; from += CHUNK_SIZE) {
+            total += jdbcTemplate.update(sql, from, from + CHUNK_SIZE - 1);
+        }
+        return total;
+    }
+}
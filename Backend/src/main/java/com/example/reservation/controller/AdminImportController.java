@@ -0,0 +1,37 @@
+package com.example.reservation.controller;
+
+import com.example.reservation.service.ImportService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// CSV bodies (text/csv) with a header line; the response lists rejected rows by line number
+@RestController
+@RequestMapping("/api/admin/import")
+public class AdminImportController {
+    private final ImportService importService;
+
+    public AdminImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping("/rooms")
+    public ResponseEntity<?> importRooms(InputStream csv) {
+        try {
+            return ResponseEntity.ok(importService.importRooms(csv));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Failed to read CSV: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/reservations")
+    public ResponseEntity<?> importReservations(InputStream csv) {
+        try {
+            return ResponseEntity.ok(importService.importReservations(csv));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Failed to read CSV: " + e.getMessage());
+        }
+    }
+}
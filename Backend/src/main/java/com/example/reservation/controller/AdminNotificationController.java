@@ -0,0 +1,31 @@
+package com.example.reservation.controller;
+
+import com.example.reservation.dto.BroadcastRequest;
+import com.example.reservation.service.NotificationBroadcastService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/notifications")
+public class AdminNotificationController {
+    private final NotificationBroadcastService broadcastService;
+
+    public AdminNotificationController(NotificationBroadcastService broadcastService) {
+        this.broadcastService = broadcastService;
+    }
+
+    // Runs in the background; poll the returned broadcast id for progress
+    @PostMapping("/broadcast")
+    public ResponseEntity<?> broadcast(@RequestBody BroadcastRequest request) {
+        try {
+            return ResponseEntity.accepted().body(broadcastService.start(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/broadcast/{id}")
+    public ResponseEntity<?> getBroadcast(@PathVariable Long id) {
+        return ResponseEntity.ok(broadcastService.getProgress(id));
+    }
+}
@@ -1,25 +1,83 @@
 package com.example.reservation.controller;
 
+import com.example.reservation.dto.CursorPage;
+import com.example.reservation.dto.ReservationSummary;
 import com.example.reservation.model.Reservation;
+import com.example.reservation.service.ArchiveHistoryService;
+import com.example.reservation.service.ReservationExportService;
 import com.example.reservation.service.ReservationService;
 import com.example.reservation.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/admin/reservations")
 public class AdminReservationController {
     private final ReservationService reservationService;
+    private final ReservationExportService reservationExportService;
+    private final ArchiveHistoryService archiveHistoryService;
 
-    public AdminReservationController(ReservationService reservationService) {
+    public AdminReservationController(ReservationService reservationService,
+                                      ReservationExportService reservationExportService,
+                                      ArchiveHistoryService archiveHistoryService) {
         this.reservationService = reservationService;
+        this.reservationExportService = reservationExportService;
+        this.archiveHistoryService = archiveHistoryService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Reservation>> getAllReservations() {
-        return ResponseEntity.ok(reservationService.getAll());
+    public ResponseEntity<?> getAllReservations(@RequestParam(required = false) Long roomId,
+                                                  @RequestParam(required = false) Long userId,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                  @RequestParam(required = false) String after,
+                                                  @RequestParam(defaultValue = "50") int limit) {
+        try {
+            CursorPage<ReservationSummary> page = reservationService.getPage(roomId, userId, from, to, after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header("X-Next-Cursor", page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Archived reservations, newest first, optionally of one room or user
+    @GetMapping("/history")
+    public ResponseEntity<?> getHistory(@RequestParam(required = false) Long roomId,
+                                        @RequestParam(required = false) Long userId,
+                                        @RequestParam(required = false) String before,
+                                        @RequestParam(defaultValue = "50") int limit) {
+        try {
+            CursorPage<ReservationSummary> page = archiveHistoryService.getReservationHistory(roomId, userId, before, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header("X-Next-Cursor", page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = ReservationExportService.NDJSON) String format,
+                       HttpServletResponse response) throws IOException {
+        if (!ReservationExportService.isSupported(format)) {
+            response.sendError(400, "Unsupported export format: " + format);
+            return;
+        }
+        response.setContentType(ReservationExportService.CSV.equals(format) ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"reservations." + format + "\"");
+        reservationExportService.export(format, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,25 @@
+package com.example.reservation.controller;
+
+import com.example.reservation.security.RevokedTokens;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/tokens")
+public class AdminTokenController {
+    private final RevokedTokens revokedTokens;
+
+    public AdminTokenController(RevokedTokens revokedTokens) {
+        this.revokedTokens = revokedTokens;
+    }
+
+    // The expiry of the token is unknown here, so the entry is kept for a full token lifetime
+    @PostMapping("/{jti}/revoke")
+    public ResponseEntity<?> revoke(@PathVariable String jti) {
+        if (jti.length() > 36) {
+            return ResponseEntity.badRequest().body("Invalid token id");
+        }
+        revokedTokens.revoke(jti, null);
+        return ResponseEntity.noContent().build();
+    }
+}
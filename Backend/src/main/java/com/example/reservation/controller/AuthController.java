@@ -1,7 +1,6 @@
 package com.example.reservation.controller;
 
 import com.example.reservation.dto.AuthRequest;
-import com.example.reservation.dto.AuthResponse;
 import com.example.reservation.model.User;
 import com.example.reservation.service.AuthService;
 import com.example.reservation.exception.ResourceNotFoundException;
@@ -9,6 +8,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
@@ -19,25 +21,42 @@ public class AuthController {
         this.authService = authService;
     }
 
+    // Completed on the password hashing pool; a full pool is answered with 503 by GlobalExceptionHandler
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthRequest authRequest) {
-        try {
-            AuthResponse authResponse = authService.authenticate(authRequest);
-            return ResponseEntity.ok(authResponse);
-        } catch (ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Invalid credentials: " + e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody AuthRequest authRequest) {
+        return authService.authenticateAsync(authRequest)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(failure -> {
+                    Throwable e = unwrap(failure);
+                    if (e instanceof ResourceNotFoundException) {
+                        return ResponseEntity.status(404).body(e.getMessage());
+                    }
+                    return ResponseEntity.badRequest().body("Invalid credentials: " + e.getMessage());
+                });
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User user) {
+        return authService.registerAsync(user)
+                .<ResponseEntity<?>>thenApply(authResponse -> new ResponseEntity<>(authResponse, HttpStatus.CREATED))
+                .exceptionally(failure -> ResponseEntity.badRequest()
+                        .body("Registration failed: " + unwrap(failure).getMessage()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body("Missing bearer token");
+        }
         try {
-            AuthResponse authResponse = authService.register(user);
-            return new ResponseEntity<>(authResponse, HttpStatus.CREATED);
+            authService.logout(authHeader.substring(7));
+            return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Registration failed: " + e.getMessage());
+            return ResponseEntity.badRequest().body("Logout failed: " + e.getMessage());
         }
     }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
 }
\ No newline at end of file
@@ -1,45 +1,97 @@
 package com.example.reservation.controller;
 
+import com.example.reservation.dto.CursorPage;
 import com.example.reservation.dto.NotificationRequest;
+import com.example.reservation.dto.NotificationSummary;
 import com.example.reservation.model.Notification;
+import com.example.reservation.service.ArchiveHistoryService;
 import com.example.reservation.service.NotificationService;
 import com.example.reservation.exception.ResourceNotFoundException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final ArchiveHistoryService archiveHistoryService;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService,
+                                  ArchiveHistoryService archiveHistoryService) {
         this.notificationService = notificationService;
+        this.archiveHistoryService = archiveHistoryService;
     }
 
     @PostMapping("/{userId}")
     public ResponseEntity<?> sendNotification(@PathVariable Long userId, @RequestBody NotificationRequest request) {
         try {
-            Notification notification = notificationService.sendNotification(userId, request.getMessage());
-            return ResponseEntity.ok(notification);
-        } catch (ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body(e.getMessage());
-        } catch (Exception e) {
+            // Accepted: the notification is written asynchronously
+            notificationService.sendNotification(userId, request.getMessage());
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            // A full queue (ServiceBusyException) is left to the exception handler: 503 with Retry-After
             return ResponseEntity.badRequest().body("Failed to send notification: " + e.getMessage());
         }
     }
 
+    // Newest first; pass the X-Next-Cursor header of a page as "before" to get the next one
     @GetMapping
-    public ResponseEntity<?> getUserNotifications() {
+    public ResponseEntity<?> getUserNotifications(@RequestParam(required = false) String before,
+                                                  @RequestParam(defaultValue = "50") int limit,
+                                                  @RequestParam(defaultValue = "false") boolean unseenOnly) {
         try {
-            return ResponseEntity.ok(notificationService.getUserNotifications());
+            CursorPage<NotificationSummary> page = notificationService.getUserNotifications(before, limit, unseenOnly);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header("X-Next-Cursor", page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Failed to retrieve notifications: " + e.getMessage());
         }
     }
 
+    // Archived (old, seen) notifications, paged like the inbox
+    @GetMapping("/history")
+    public ResponseEntity<?> getHistory(@RequestParam(required = false) String before,
+                                        @RequestParam(defaultValue = "50") int limit) {
+        try {
+            CursorPage<NotificationSummary> page = archiveHistoryService.getNotificationHistory(before, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header("X-Next-Cursor", page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Live notifications; a reconnecting client sends Last-Event-ID to get the ones it missed
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return notificationService.subscribe(lastEventId);
+    }
+
+    // Served from the in-memory counter, cheap enough for a badge refresh
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> getUnreadCount() {
+        return ResponseEntity.ok(Map.of("count", notificationService.getUnreadCount()));
+    }
+
+    @PutMapping("/read-all")
+    public ResponseEntity<?> markAllAsRead() {
+        return ResponseEntity.ok(Map.of("updated", notificationService.markAllAsRead()));
+    }
+
     @PutMapping("/{notificationId}/read")
     public ResponseEntity<?> markAsRead(@PathVariable Long notificationId) {
         try {
@@ -1,27 +1,33 @@
 package com.example.reservation.controller;
 
+import com.example.reservation.dto.CursorPage;
+import com.example.reservation.dto.ReservationSummary;
 import com.example.reservation.model.Reservation;
 import com.example.reservation.model.TimeSlot;
+import com.example.reservation.service.ArchiveHistoryService;
 import com.example.reservation.service.ReservationService;
 import com.example.reservation.exception.ResourceNotFoundException;
 import com.example.reservation.dto.CreateReservationRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 
 @RestController
 @RequestMapping("/api/reservations")
 public class ReservationController {
     private final ReservationService reservationService;
+    private final ArchiveHistoryService archiveHistoryService;
     private static final Logger logger = LoggerFactory.getLogger(ReservationController.class);
 
-    public ReservationController(ReservationService reservationService) {
+    public ReservationController(ReservationService reservationService, ArchiveHistoryService archiveHistoryService) {
         this.reservationService = reservationService;
+        this.archiveHistoryService = archiveHistoryService;
     }
 
     @PostMapping
@@ -68,6 +74,49 @@ public class ReservationController {
         }
     }
 
+    // Holds the slot for a few minutes while the user finishes the form; confirm or release it afterwards
+    @PostMapping("/holds")
+    public ResponseEntity<?> placeHold(@RequestBody CreateReservationRequest request) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(request.getDate() + "T" + request.getStartTime());
+            LocalDateTime endTime = LocalDateTime.parse(request.getDate() + "T" + request.getEndTime());
+            return ResponseEntity.status(201).body(reservationService.placeHold(new TimeSlot(startTime, endTime),
+                    request.getRoomId(), request.getAttendees()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+
+    // Body is optional: purpose and attendees of the booking
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<?> confirmHold(@PathVariable String holdId,
+                                         @RequestBody(required = false) CreateReservationRequest request) {
+        try {
+            Reservation reservation = reservationService.confirmHold(holdId,
+                    request != null ? request.getPurpose() : null, request != null ? request.getAttendees() : null);
+            logger.info("Hold {} confirmed as reservation {}", holdId, reservation.getId());
+            return ResponseEntity.ok(reservation);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<?> releaseHold(@PathVariable String holdId) {
+        try {
+            reservationService.releaseHold(holdId);
+            return ResponseEntity.noContent().build();
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+
     @PostMapping("/{roomId}")
     public ResponseEntity<?> create(@PathVariable Long roomId, @RequestBody TimeSlot timeSlot) {
         try {
@@ -81,8 +130,38 @@ public class ReservationController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Reservation>> getAll() {
-        return ResponseEntity.ok(reservationService.getAll());
+    public ResponseEntity<?> getAll(@RequestParam(required = false) Long roomId,
+                                      @RequestParam(required = false) Long userId,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                      @RequestParam(required = false) String after,
+                                      @RequestParam(defaultValue = "50") int limit) {
+        try {
+            CursorPage<ReservationSummary> page = reservationService.getPage(roomId, userId, from, to, after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header("X-Next-Cursor", page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // The current user's archived reservations, newest first
+    @GetMapping("/history")
+    public ResponseEntity<?> getHistory(@RequestParam(required = false) String before,
+                                        @RequestParam(defaultValue = "50") int limit) {
+        try {
+            CursorPage<ReservationSummary> page = archiveHistoryService.getMyReservationHistory(before, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header("X-Next-Cursor", page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
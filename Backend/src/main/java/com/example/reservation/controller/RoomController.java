@@ -3,9 +3,12 @@ package com.example.reservation.controller;
 import com.example.reservation.model.Room;
 import com.example.reservation.service.RoomService;
 import com.example.reservation.exception.ResourceNotFoundException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -31,6 +34,17 @@ public class RoomController {
         return ResponseEntity.ok(roomService.getAll());
     }
 
+    @GetMapping("/available")
+    public ResponseEntity<?> getAvailable(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                          @RequestParam(defaultValue = "1") int minCapacity) {
+        try {
+            return ResponseEntity.ok(roomService.findAvailable(start, end, minCapacity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getById(@PathVariable Long id) {
         try {
@@ -40,6 +54,20 @@ public class RoomController {
         }
     }
 
+    @GetMapping("/{id}/free-slots")
+    public ResponseEntity<?> getFreeSlots(@PathVariable Long id,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                          @RequestParam(defaultValue = "0") long minDuration) {
+        try {
+            return ResponseEntity.ok(roomService.findFreeSlots(id, from, to, Duration.ofMinutes(minDuration)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Room room) {
         try {
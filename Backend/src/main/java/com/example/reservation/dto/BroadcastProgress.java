@@ -0,0 +1,8 @@
+package com.example.reservation.dto;
+
+import java.time.LocalDateTime;
+
+// Snapshot of a running or finished broadcast; total is the audience size counted when it started
+public record BroadcastProgress(Long id, String status, long total, long sent, long failed,
+                                LocalDateTime startedAt, LocalDateTime finishedAt) {
+}
@@ -0,0 +1,7 @@
+package com.example.reservation.dto;
+
+import com.example.reservation.model.enums.Role;
+
+// Exactly one audience: all users with a role, or the users with upcoming reservations in a room or at a location
+public record BroadcastRequest(String message, Role role, Long roomId, String location) {
+}
@@ -0,0 +1,6 @@
+package com.example.reservation.dto;
+
+import java.time.LocalDateTime;
+
+public record FreeSlot(LocalDateTime startTime, LocalDateTime endTime) {
+}
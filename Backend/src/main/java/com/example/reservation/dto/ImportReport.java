@@ -0,0 +1,10 @@
+package com.example.reservation.dto;
+
+import java.util.List;
+
+// Outcome of a CSV import: rows are numbered as in the file, header included
+public record ImportReport(int rows, int imported, List<RowError> errors) {
+
+    public record RowError(long line, String message) {
+    }
+}
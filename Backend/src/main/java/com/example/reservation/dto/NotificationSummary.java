@@ -0,0 +1,7 @@
+package com.example.reservation.dto;
+
+import java.time.LocalDateTime;
+
+// Notification as sent to clients (inbox pages, SSE events), without the User association; id doubles as the SSE event id
+public record NotificationSummary(Long id, String message, boolean seen, LocalDateTime createdAt) {
+}
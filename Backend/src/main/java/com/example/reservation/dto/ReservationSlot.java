@@ -0,0 +1,7 @@
+package com.example.reservation.dto;
+
+import java.time.LocalDateTime;
+
+// Minimal projection of a reservation used to (re)build the in-memory occupancy index
+public record ReservationSlot(Long reservationId, Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+}
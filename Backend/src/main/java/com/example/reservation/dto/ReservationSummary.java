@@ -0,0 +1,15 @@
+package com.example.reservation.dto;
+
+import java.time.LocalDateTime;
+
+// Flat read model for reservation listings; built directly by JPQL so no entity graph is loaded
+public record ReservationSummary(Long id,
+                                 Long roomId,
+                                 String roomName,
+                                 Long userId,
+                                 String userName,
+                                 LocalDateTime startTime,
+                                 LocalDateTime endTime,
+                                 String purpose,
+                                 Integer attendees) {
+}
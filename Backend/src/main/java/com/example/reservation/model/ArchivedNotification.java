@@ -0,0 +1,48 @@
+package com.example.reservation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Seen notification moved out of the notification table by the retention archiver
+@Entity
+@Table(name = "notification_archive",
+        indexes = @Index(name = "idx_notification_archive_user_created", columnList = "user_id, created_at, id"))
+public class ArchivedNotification {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private String message;
+
+    private boolean seen;
+    private LocalDateTime createdAt;
+    private LocalDateTime archivedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isSeen() {
+        return seen;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.reservation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Past reservation moved out of the reservation table by the retention archiver; room and user are
+// plain ids since either may be deleted later
+@Entity
+@Table(name = "reservation_archive", indexes = {
+        @Index(name = "idx_reservation_archive_user_start", columnList = "user_id, start_time, id"),
+        @Index(name = "idx_reservation_archive_room_start", columnList = "room_id, start_time, id")
+})
+public class ArchivedReservation {
+
+    @Id
+    private Long id;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String purpose;
+    private Integer attendees;
+    private LocalDateTime archivedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public String getPurpose() {
+        return purpose;
+    }
+
+    public Integer getAttendees() {
+        return attendees;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
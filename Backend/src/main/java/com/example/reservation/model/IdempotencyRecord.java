@@ -0,0 +1,66 @@
+package com.example.reservation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Outcome of a request sent with an Idempotency-Key, replayed to retries until it expires.
+// The id is a hash of the user and the key; status is null while the first request is still running, and
+// only the holder of the lease token may record its outcome.
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_expires", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(length = 64, nullable = false)
+    private String requestHash;
+
+    @Column(length = 36)
+    private String leaseToken;
+
+    private Integer status;
+
+    private String contentType;
+
+    @Lob
+    private byte[] body;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public String getLeaseToken() {
+        return leaseToken;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -5,28 +5,36 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_reservation_room_time", columnList = "room_id, start_time, end_time"),
+        @Index(name = "idx_reservation_start", columnList = "start_time, id"),
+        @Index(name = "idx_reservation_user_start", columnList = "user_id, start_time")
+})
 public class Reservation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonBackReference // Prevent infinite loop
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_id")
     private Room room;
 
-    @ManyToOne
-    @JoinColumn(name = "time_slot_id")
-    private TimeSlot timeSlot; // Nouvelle relation avec TimeSlot
+    @Embedded
+    private TimeSlot timeSlot; // start_time / end_time columns, next to room_id
 
     private String purpose;
     private Integer attendees;
 
+    // Start time the "starts soon" reminder was sent for; claimed by one node before it sends
+    private LocalDateTime remindedFor;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -75,4 +83,12 @@ public class Reservation {
     public void setAttendees(Integer attendees) {
         this.attendees = attendees;
     }
+
+    public LocalDateTime getRemindedFor() {
+        return remindedFor;
+    }
+
+    public void setRemindedFor(LocalDateTime remindedFor) {
+        this.remindedFor = remindedFor;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.reservation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A tentative hold on a room slot, visible to every node until it is confirmed, released or expires
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_reservation_hold_room_time", columnList = "room_id, start_time, end_time"),
+        @Index(name = "idx_reservation_hold_user", columnList = "user_id"),
+        @Index(name = "idx_reservation_hold_expires", columnList = "expires_at")
+})
+public class ReservationHold {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Long roomId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(nullable = false)
+    private Integer attendees;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public ReservationHold() {}
+
+    public ReservationHold(String id, Long roomId, Long userId, LocalDateTime startTime, LocalDateTime endTime,
+                           Integer attendees, LocalDateTime expiresAt) {
+        this.id = id;
+        this.roomId = roomId;
+        this.userId = userId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.attendees = attendees;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public Integer getAttendees() {
+        return attendees;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
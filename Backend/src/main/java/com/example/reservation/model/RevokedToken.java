@@ -0,0 +1,42 @@
+package com.example.reservation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A JWT revoked before its expiry, identified by its jti claim; kept until the token would have expired
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_revoked_token_expires", columnList = "expires_at"),
+        @Index(name = "idx_revoked_token_revoked", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime revokedAt;
+
+    public RevokedToken() {}
+
+    public RevokedToken(String jti, LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+}
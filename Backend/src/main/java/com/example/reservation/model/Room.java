@@ -3,12 +3,16 @@ package com.example.reservation.model;
 import jakarta.persistence.*;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
+@Table(indexes = @Index(name = "idx_room_capacity", columnList = "capacity"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // Serializable as a lazy proxy
 public class Room {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_seq")
+    @SequenceGenerator(name = "room_seq", sequenceName = "room_seq", allocationSize = 50)
     private Long id;
 
     private String name;
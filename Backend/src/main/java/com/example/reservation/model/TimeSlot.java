@@ -1,19 +1,13 @@
 package com.example.reservation.model;
 
 import jakarta.persistence.*;
-import lombok.*;
-import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import java.time.LocalDateTime;
 
-@Entity
-//@Builder
+// Time range of a reservation, stored in the reservation row itself (start_time, end_time)
+@Embeddable
 public class TimeSlot {
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
     private LocalDateTime startTime;
     private LocalDateTime endTime;
 
@@ -24,14 +18,6 @@ public class TimeSlot {
         this.endTime = endTime;
     }
 
-    public Long getId() {
-        return id;
-    }
-
-    public void setId(Long id) {
-        this.id = id;
-    }
-
     public LocalDateTime getStartTime() {
         return startTime;
     }
@@ -47,17 +33,4 @@ public class TimeSlot {
     public void setEndTime(LocalDateTime endTime) {
         this.endTime = endTime;
     }
-
-    public Room getRoom() {
-        return room;
-    }
-
-    public void setRoom(Room room) {
-        this.room = room;
-    }
-
-    @ManyToOne
-    @JoinColumn(name = "room_id")
-    @JsonBackReference // Prevent infinite loop
-    private Room room;
-}
\ No newline at end of file
+}
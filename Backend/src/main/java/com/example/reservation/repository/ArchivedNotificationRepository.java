@@ -0,0 +1,21 @@
+package com.example.reservation.repository;
+
+import com.example.reservation.dto.NotificationSummary;
+import com.example.reservation.model.ArchivedNotification;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ArchivedNotificationRepository extends JpaRepository<ArchivedNotification, Long> {
+
+    // Same order and keyset as the live inbox
+    @Query("SELECT new com.example.reservation.dto.NotificationSummary(a.id, a.message, a.seen, a.createdAt) " +
+           "FROM ArchivedNotification a WHERE a.userId = :userId " +
+           "AND (:beforeTime IS NULL OR a.createdAt < :beforeTime " +
+           "OR (a.createdAt = :beforeTime AND a.id < :beforeId)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<NotificationSummary> findHistoryPage(Long userId, LocalDateTime beforeTime, Long beforeId, Limit limit);
+}
@@ -0,0 +1,24 @@
+package com.example.reservation.repository;
+
+import com.example.reservation.dto.ReservationSummary;
+import com.example.reservation.model.ArchivedReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ArchivedReservationRepository extends JpaRepository<ArchivedReservation, Long> {
+
+    // Newest first, keyset on (start_time, id) below the cursor; names are joined while room and user still exist
+    @Query("SELECT new com.example.reservation.dto.ReservationSummary(a.id, a.roomId, ro.name, a.userId, u.fullName, " +
+           "a.startTime, a.endTime, a.purpose, a.attendees) " +
+           "FROM ArchivedReservation a LEFT JOIN Room ro ON ro.id = a.roomId LEFT JOIN User u ON u.id = a.userId " +
+           "WHERE (:roomId IS NULL OR a.roomId = :roomId) AND (:userId IS NULL OR a.userId = :userId) " +
+           "AND (:beforeTime IS NULL OR a.startTime < :beforeTime " +
+           "OR (a.startTime = :beforeTime AND a.id < :beforeId)) " +
+           "ORDER BY a.startTime DESC, a.id DESC")
+    List<ReservationSummary> findHistoryPage(Long roomId, Long userId, LocalDateTime beforeTime, Long beforeId,
+                                             Limit limit);
+}
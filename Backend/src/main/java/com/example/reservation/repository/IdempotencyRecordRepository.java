@@ -0,0 +1,54 @@
+package com.example.reservation.repository;
+
+import com.example.reservation.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // A plain INSERT rather than save(), so that a concurrent claim of the same key fails on the primary key
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_key (id, request_hash, lease_token, created_at, expires_at) " +
+                   "VALUES (:id, :requestHash, :leaseToken, :createdAt, :expiresAt)", nativeQuery = true)
+    void insertPending(String id, String requestHash, String leaseToken, LocalDateTime createdAt,
+                       LocalDateTime expiresAt);
+
+    // Zero rows when the lease was lost, i.e. the key was taken over after the pending lease
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.contentType = :contentType, r.body = :body " +
+           "WHERE r.id = :id AND r.leaseToken = :leaseToken AND r.status IS NULL")
+    int complete(String id, String leaseToken, int status, String contentType, byte[] body);
+
+    // Frees the key of a request that failed, so the client can retry it
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.leaseToken = :leaseToken AND r.status IS NULL")
+    int deletePending(String id, String leaseToken);
+
+    // Pending keys whose request has been running longer than any request can, e.g. after a crash
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.status IS NULL AND r.createdAt <= :createdBefore")
+    int deleteStalePending(LocalDateTime createdBefore);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status IS NULL AND r.createdAt <= :createdBefore")
+    int deleteStalePending(String id, LocalDateTime createdBefore);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt <= :now")
+    int deleteExpired(String id, LocalDateTime now);
+}
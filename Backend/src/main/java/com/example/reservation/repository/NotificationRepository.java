@@ -1,10 +1,50 @@
 package com.example.reservation.repository;
 
+import com.example.reservation.dto.NotificationSummary;
 import com.example.reservation.model.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Newest first, keyset on (created_at, id) below the cursor; served by idx_notification_user_created
+    @Query("SELECT new com.example.reservation.dto.NotificationSummary(n.id, n.message, n.seen, n.createdAt) " +
+           "FROM Notification n WHERE n.user.id = :userId AND (:unseenOnly = false OR n.seen = false) " +
+           "AND (:beforeTime IS NULL OR n.createdAt < :beforeTime " +
+           "OR (n.createdAt = :beforeTime AND n.id < :beforeId)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationSummary> findInboxPage(Long userId, boolean unseenOnly, LocalDateTime beforeTime, Long beforeId,
+                                            Limit limit);
+
+    // Notifications missed by a reconnecting SSE client, oldest id first: those after its last event id and,
+    // when since is given, those created since then, whose lower ids may have been committed later
+    @Query("SELECT new com.example.reservation.dto.NotificationSummary(n.id, n.message, n.seen, n.createdAt) " +
+           "FROM Notification n WHERE n.user.id = :userId " +
+           "AND (n.id > :afterId OR (:since IS NOT NULL AND n.id < :afterId AND n.createdAt >= :since)) " +
+           "ORDER BY n.id")
+    List<NotificationSummary> findEventsAfter(Long userId, Long afterId, LocalDateTime since, Limit limit);
+
+    @Query("SELECT n.createdAt FROM Notification n WHERE n.id = :id AND n.user.id = :userId")
+    Optional<LocalDateTime> findCreatedAt(Long userId, Long id);
+
+    long countByUserIdAndSeenFalse(Long userId);
+
+    // Conditional, so concurrent calls report the change only once
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.seen = true WHERE n.id = :id AND n.seen = false")
+    int markSeen(Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.seen = true WHERE n.user.id = :userId AND n.seen = false")
+    int markAllSeen(Long userId);
+}
@@ -0,0 +1,50 @@
+package com.example.reservation.repository;
+
+import com.example.reservation.model.ReservationHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReservationHoldRepository extends JpaRepository<ReservationHold, String> {
+
+    // Same half-open overlap as ReservationRepository.isRoomReserved, over holds not yet expired
+    @Query("SELECT COUNT(h) > 0 FROM ReservationHold h WHERE h.roomId = :roomId AND " +
+           "h.startTime < :endTime AND h.endTime > :startTime AND h.expiresAt > :now")
+    boolean isRoomHeld(@Param("roomId") Long roomId,
+                       @Param("startTime") LocalDateTime startTime,
+                       @Param("endTime") LocalDateTime endTime,
+                       @Param("now") LocalDateTime now);
+
+    // Live holds of the room overlapping [from, to)
+    @Query("SELECT h FROM ReservationHold h WHERE h.roomId = :roomId AND h.startTime < :to AND h.endTime > :from " +
+           "AND h.expiresAt > :now")
+    List<ReservationHold> findLiveByRoomBetween(@Param("roomId") Long roomId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("now") LocalDateTime now);
+
+    Optional<ReservationHold> findByIdAndUserIdAndExpiresAtAfter(String id, Long userId, LocalDateTime now);
+
+    long countByUserIdAndExpiresAtAfter(Long userId, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReservationHold h WHERE h.id = :id AND h.userId = :userId AND h.expiresAt > :now")
+    int deleteLive(@Param("id") String id, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReservationHold h WHERE h.id = :id")
+    int deleteHold(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReservationHold h WHERE h.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
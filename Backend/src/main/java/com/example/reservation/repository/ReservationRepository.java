@@ -1,22 +1,92 @@
 package com.example.reservation.repository;
 
+import com.example.reservation.dto.ReservationSlot;
+import com.example.reservation.dto.ReservationSummary;
 import com.example.reservation.model.Reservation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
     List<Reservation> findByUserId(Long userId);
     List<Reservation> findByRoomId(Long roomId);
 
+    // Room in the same select, for endpoints returning a single entity
+    @EntityGraph(attributePaths = {"room"})
+    Optional<Reservation> findWithDetailsById(Long id);
+
+    // Keyset page ordered by (start time, id): one statement per page, whatever the offset
+    @Query("SELECT new com.example.reservation.dto.ReservationSummary(r.id, ro.id, ro.name, u.id, u.fullName, " +
+           "r.timeSlot.startTime, r.timeSlot.endTime, r.purpose, r.attendees) " +
+           "FROM Reservation r LEFT JOIN r.room ro LEFT JOIN r.user u " +
+           "WHERE r.timeSlot.startTime IS NOT NULL " +
+           "AND (:roomId IS NULL OR r.room.id = :roomId) AND (:userId IS NULL OR r.user.id = :userId) " +
+           "AND (:from IS NULL OR r.timeSlot.startTime >= :from) AND (:to IS NULL OR r.timeSlot.startTime < :to) " +
+           "AND (:afterTime IS NULL OR r.timeSlot.startTime > :afterTime " +
+           "OR (r.timeSlot.startTime = :afterTime AND r.id > :afterId)) " +
+           "ORDER BY r.timeSlot.startTime, r.id")
+    List<ReservationSummary> findPage(@Param("roomId") Long roomId,
+                                      @Param("userId") Long userId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("afterTime") LocalDateTime afterTime,
+                                      @Param("afterId") Long afterId,
+                                      Limit limit);
+
+    @Query("SELECT new com.example.reservation.dto.ReservationSummary(r.id, ro.id, ro.name, u.id, u.fullName, " +
+           "r.timeSlot.startTime, r.timeSlot.endTime, r.purpose, r.attendees) " +
+           "FROM Reservation r LEFT JOIN r.room ro LEFT JOIN r.user u WHERE r.id IN :ids")
+    List<ReservationSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // MySQL streams rows one by one only with a fetch size of Integer.MIN_VALUE
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.example.reservation.dto.ReservationSummary(r.id, ro.id, ro.name, u.id, u.fullName, " +
+           "r.timeSlot.startTime, r.timeSlot.endTime, r.purpose, r.attendees) " +
+           "FROM Reservation r LEFT JOIN r.room ro LEFT JOIN r.user u ORDER BY r.id")
+    Stream<ReservationSummary> streamAllSummaries();
+
+    // Every node holds the same reminders: the one whose update succeeds sends it. Also checks that the
+    // reservation still starts then; a reservation moved to another time gets a new reminder
+    @Modifying
+    @Transactional
+    @Query("UPDATE Reservation r SET r.remindedFor = :startTime WHERE r.id = :id " +
+           "AND r.timeSlot.startTime = :startTime AND (r.remindedFor IS NULL OR r.remindedFor <> :startTime)")
+    int claimReminder(@Param("id") Long id, @Param("startTime") LocalDateTime startTime);
+
+    // Gives a claimed reminder back, e.g. when it could not be queued
+    @Modifying
+    @Transactional
+    @Query("UPDATE Reservation r SET r.remindedFor = NULL WHERE r.id = :id AND r.remindedFor = :startTime")
+    int releaseReminder(@Param("id") Long id, @Param("startTime") LocalDateTime startTime);
+
+    // Half-open intervals: a booking ending at 10:00 does not overlap one starting at 10:00
     @Query("SELECT COUNT(r) > 0 FROM Reservation r WHERE r.room.id = :roomId AND " +
-           "((:startTime BETWEEN r.timeSlot.startTime AND r.timeSlot.endTime) OR " +
-           "(:endTime BETWEEN r.timeSlot.startTime AND r.timeSlot.endTime) OR " +
-           "(r.timeSlot.startTime BETWEEN :startTime AND :endTime))")
+           "r.timeSlot.startTime < :endTime AND r.timeSlot.endTime > :startTime")
     boolean isRoomReserved(@Param("roomId") Long roomId,
                            @Param("startTime") LocalDateTime startTime,
                            @Param("endTime") LocalDateTime endTime);
+
+    @Query("SELECT new com.example.reservation.dto.ReservationSlot(r.id, r.room.id, r.timeSlot.startTime, r.timeSlot.endTime) " +
+           "FROM Reservation r WHERE r.room IS NOT NULL AND r.timeSlot.startTime IS NOT NULL")
+    List<ReservationSlot> findAllSlots();
+
+    @Query("SELECT new com.example.reservation.dto.ReservationSlot(r.id, r.room.id, r.timeSlot.startTime, r.timeSlot.endTime) " +
+           "FROM Reservation r WHERE r.room.id = :roomId AND " +
+           "r.timeSlot.startTime < :endTime AND r.timeSlot.endTime > :startTime ORDER BY r.timeSlot.startTime")
+    List<ReservationSlot> findSlotsByRoomBetween(@Param("roomId") Long roomId,
+                                                 @Param("startTime") LocalDateTime startTime,
+                                                 @Param("endTime") LocalDateTime endTime);
 }
\ No newline at end of file
@@ -1,7 +1,31 @@
 package com.example.reservation.repository;
 
 import com.example.reservation.model.Room;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
+
+    // SELECT ... FOR UPDATE: serializes bookings of one room across application nodes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id = :id")
+    Optional<Room> findByIdForUpdate(@Param("id") Long id);
+
+    List<Room> findByCapacityGreaterThanEqualOrderByCapacityAsc(int minCapacity);
+
+    // Fallback used while the occupancy index is not loaded yet
+    @Query("SELECT r FROM Room r WHERE r.capacity >= :minCapacity AND NOT EXISTS (" +
+           "SELECT 1 FROM Reservation res WHERE res.room = r AND " +
+           "res.timeSlot.startTime < :endTime AND res.timeSlot.endTime > :startTime) " +
+           "ORDER BY r.capacity")
+    List<Room> findAvailable(@Param("minCapacity") int minCapacity,
+                             @Param("startTime") LocalDateTime startTime,
+                             @Param("endTime") LocalDateTime endTime);
 }
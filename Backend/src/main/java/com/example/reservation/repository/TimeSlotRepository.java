@@ -1,7 +0,0 @@
-package com.example.reservation.repository;
-
-import com.example.reservation.model.TimeSlot;
-import org.springframework.data.jpa.repository.JpaRepository;
-
-public interface TimeSlotRepository extends JpaRepository<TimeSlot, Long> {
-}
@@ -1,10 +1,38 @@
 package com.example.reservation.repository;
 
 import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    List<User> findByEmailIn(Collection<String> emails);
+
+    // Broadcast audiences, read as id chunks in id order (keyset on afterId)
+    @Query("SELECT u.id FROM User u WHERE u.role = :role AND u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsByRole(Role role, Long afterId, Limit limit);
+
+    long countByRole(Role role);
+
+    @Query("SELECT DISTINCT r.user.id FROM Reservation r WHERE r.room.id = :roomId " +
+           "AND r.timeSlot.endTime > :now AND r.user.id > :afterId ORDER BY r.user.id")
+    List<Long> findIdsWithUpcomingReservationInRoom(Long roomId, LocalDateTime now, Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(DISTINCT r.user.id) FROM Reservation r WHERE r.room.id = :roomId AND r.timeSlot.endTime > :now")
+    long countWithUpcomingReservationInRoom(Long roomId, LocalDateTime now);
+
+    @Query("SELECT DISTINCT r.user.id FROM Reservation r WHERE r.room.location = :location " +
+           "AND r.timeSlot.endTime > :now AND r.user.id > :afterId ORDER BY r.user.id")
+    List<Long> findIdsWithUpcomingReservationAt(String location, LocalDateTime now, Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(DISTINCT r.user.id) FROM Reservation r WHERE r.room.location = :location AND r.timeSlot.endTime > :now")
+    long countWithUpcomingReservationAt(String location, LocalDateTime now);
 }
@@ -0,0 +1,77 @@
+package com.example.reservation.security;
+
+import com.example.reservation.model.User;
+import com.example.reservation.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * The authenticated user of the current request, loaded from the database at most once and shared
+ * by the JWT filter, controllers and services.
+ */
+@Component
+@RequestScope
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+    private final Counter lookupCounter;
+    private final DistributionSummary lookupsPerRequest;
+    private User user;
+    private int lookups;
+
+    public CurrentUser(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.lookupCounter = Counter.builder("reservation.user.lookups")
+                .description("User rows loaded to resolve the authenticated user")
+                .register(meterRegistry);
+        this.lookupsPerRequest = DistributionSummary.builder("reservation.user.lookups.per.request")
+                .description("User rows loaded per request")
+                .register(meterRegistry);
+    }
+
+    // Used by the JWT filter, before the security context is set
+    public User load(String email) {
+        if (user == null || !user.getEmail().equals(email)) {
+            lookups++;
+            lookupCounter.increment();
+            user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        }
+        return user;
+    }
+
+    public User get() {
+        if (user != null) {
+            return user;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new IllegalStateException("User not authenticated");
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof User entity) {
+            user = entity;
+        } else if (principal instanceof AuthenticatedUser claims) {
+            // Stateless principal: the entity is only loaded when a service really needs it
+            lookups++;
+            lookupCounter.increment();
+            user = userRepository.findById(claims.getId())
+                    .orElseThrow(() -> new IllegalStateException("User not found"));
+        } else {
+            load(authentication.getName());
+        }
+        return user;
+    }
+
+    @PreDestroy
+    public void recordLookups() {
+        lookupsPerRequest.record(lookups);
+    }
+}
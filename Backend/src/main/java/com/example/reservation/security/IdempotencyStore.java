@@ -0,0 +1,130 @@
+package com.example.reservation.security;
+
+import com.example.reservation.model.IdempotencyRecord;
+import com.example.reservation.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Responses stored by Idempotency-Key. The idempotency_key table is the source of truth and
+ * arbitrates concurrent first requests through its primary key. Completed responses are also kept in
+ * a bounded, least-recently-used map so that a burst of retries is answered without a query. A key
+ * whose first request never completes, e.g. because its node died, is freed after the pending lease; each
+ * claim carries a lease token, so a request that overran its lease cannot overwrite or free the key of
+ * the request that took it over.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Duration pendingLease;
+    private final Map<String, StoredResponse> recent;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${reservation.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${reservation.idempotency.pending-lease:60s}") Duration pendingLease,
+                            @Value("${reservation.idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.pendingLease = pendingLease;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    // Either a lease on the key, when the caller now owns it and must run the request, or what is stored
+    // for it, with a null status while the first request is still running
+    public Claim claim(String id, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        StoredResponse cached = recent.get(id);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return new Claim(null, cached);
+        }
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                String leaseToken = UUID.randomUUID().toString();
+                repository.insertPending(id, requestHash, leaseToken, now, now.plus(ttl));
+                return new Claim(leaseToken, null);
+            } catch (DataIntegrityViolationException e) {
+                IdempotencyRecord existing = repository.findById(id).orElse(null);
+                if (existing == null) {
+                    continue;
+                }
+                if (existing.getStatus() == null && !existing.getCreatedAt().isAfter(now.minus(pendingLease))) {
+                    // The first request died without completing or abandoning the key; take it over
+                    repository.deleteStalePending(id, now.minus(pendingLease));
+                    continue;
+                }
+                if (existing.getExpiresAt().isAfter(now)) {
+                    StoredResponse stored = StoredResponse.of(existing);
+                    if (stored.status() != null) {
+                        recent.put(id, stored);
+                    }
+                    return new Claim(null, stored);
+                }
+                // Expired but not yet cleaned up: the key may be used again
+                repository.deleteExpired(id, now);
+            }
+        }
+        throw new IllegalStateException("Could not claim idempotency key");
+    }
+
+    // False when the lease was lost: the response of the request that took the key over is kept
+    public boolean complete(String id, String leaseToken, String requestHash, int status, String contentType,
+                            byte[] body) {
+        if (repository.complete(id, leaseToken, status, contentType, body) == 0) {
+            logger.warn("Idempotency key lease lost before the request completed; its response is not stored");
+            return false;
+        }
+        recent.put(id, new StoredResponse(requestHash, status, contentType, body, LocalDateTime.now().plus(ttl)));
+        return true;
+    }
+
+    public void abandon(String id, String leaseToken) {
+        repository.deletePending(id, leaseToken);
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.idempotency.cleanup-interval:3600000}")
+    public void deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = repository.deleteExpired(now) + repository.deleteStalePending(now.minus(pendingLease));
+        synchronized (recent) {
+            recent.values().removeIf(stored -> !stored.expiresAt().isAfter(now));
+        }
+        logger.debug("Deleted {} expired idempotency keys", deleted);
+    }
+
+    // Exactly one of the two is set
+    public record Claim(String leaseToken, StoredResponse stored) {
+
+        public boolean owned() {
+            return leaseToken != null;
+        }
+    }
+
+    public record StoredResponse(String requestHash, Integer status, String contentType, byte[] body,
+                                 LocalDateTime expiresAt) {
+
+        static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getStatus(), record.getContentType(),
+                    record.getBody(), record.getExpiresAt());
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.reservation.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,36 +26,62 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtService jwtService;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private CurrentUser currentUser;
+
+    @Autowired
+    private UserTokenRevocations tokenRevocations;
+
+    @Autowired
+    private RevokedTokens revokedTokens;
+
+    @Value("${reservation.security.stateless-principal:false}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-
-        System.out.println("JWT: " + jwt);
-        System.out.println("Extracted email: " + userEmail);
+        // Signature and expiration are checked once; the claims serve every later check
+        final Claims claims;
+        try {
+            claims = jwtService.verify(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            // Invalid token: continue unauthenticated and let the security rules reject the request
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (revokedTokens.isRevoked(claims)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final String userEmail = claims.getSubject();
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails.getUsername())) {
+            UserDetails userDetails = loadPrincipal(claims);
+            if (userDetails != null && jwtService.isTokenValid(claims, userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                System.out.println("User authenticated: " + userDetails.getUsername());
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // From the token claims in stateless mode, otherwise (or for tokens without a uid claim) from the database
+    private UserDetails loadPrincipal(Claims claims) {
+        if (statelessPrincipal) {
+            AuthenticatedUser user = AuthenticatedUser.fromClaims(claims);
+            if (user != null) {
+                return tokenRevocations.isRevoked(user.getId(), claims.getIssuedAt()) ? null : user;
+            }
+        }
+        return currentUser.load(claims.getSubject());
+    }
+}
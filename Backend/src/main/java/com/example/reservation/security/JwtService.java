@@ -1,6 +1,8 @@
 package com.example.reservation.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -8,18 +10,35 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class JwtService {
 
     private static final String SECRET_KEY = "secretkeysecretkeysecretkeysecretkeysecretkeysecretkeysecretkeysecretkeysecretkey"; // Use a secure secret in production
-    private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 hours
+    static final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 hours
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+    private static final int MAX_CACHED_TOKENS = 10_000;
+
+    // Thread-safe once built; building it per call dominated the cost of small requests
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(SECRET_KEY)
+            .build();
+
+    // Claims of tokens whose signature was already checked, keyed by the token itself: a lookup costs a
+    // string hash and compare, cheap enough for the rate limiter to call before the JWT filter does
+    private final Map<String, Claims> verifiedTokens = new ConcurrentHashMap<>();
 
     // Generate JWT
     public String generateToken(String username) {
         return Jwts.builder()
                 .setSubject(username) // Ensure this is the email
+                .setId(UUID.randomUUID().toString()) // jti, used to revoke the token
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
@@ -29,54 +48,60 @@ public class JwtService {
     public String generateToken(String username, String role) {
         return Jwts.builder()
                 .setSubject(username) // Set the email as the subject
-                .claim("role", role) // Add the role as a custom claim
+                .claim(ROLE_CLAIM, role) // Add the role as a custom claim
+                .setId(UUID.randomUUID().toString()) // jti, used to revoke the token
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .compact();
+    }
+
+    // The user id and role claims are enough to build the principal without a database lookup
+    public String generateToken(Long userId, String username, String role) {
+        return Jwts.builder()
+                .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLE_CLAIM, role)
+                .setId(UUID.randomUUID().toString()) // jti, used to revoke the token
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
                 .compact();
     }
 
+    // Verify signature and expiration once and return the claims; throws JwtException if invalid
+    public Claims verify(String token) {
+        Claims claims = verifiedTokens.get(token);
+        if (claims != null) {
+            if (isExpired(claims)) {
+                verifiedTokens.remove(token);
+                throw new ExpiredJwtException(null, claims, "JWT expired at " + claims.getExpiration());
+            }
+            return claims;
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            cache(token, claims);
+        }
+        return claims;
+    }
+
     // Extract username from token
     public String extractUsername(String token) {
-        String userEmail = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject(); // Extract the subject (email)
-        System.out.println("Extracted email from token: " + userEmail); // Debug log
-        return userEmail;
+        return verify(token).getSubject(); // Extract the subject (email)
     }
 
     public String extractRole(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("role", String.class); // Extract the role claim
+        return verify(token).get(ROLE_CLAIM, String.class); // Extract the role claim
     }
 
     // Validate token
     public boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        System.out.println("Fetching user with email: " + username);
-        return extractedUsername.equals(username) && !isTokenExpired(token);
-    }
-
-    // Check if token is expired
-    private boolean isTokenExpired(String token) {
-        return extractExpirationDate(token).before(new Date());
+        return isTokenValid(verify(token), username);
     }
 
-    // Extract expiration date
-    private Date extractExpirationDate(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+    public boolean isTokenValid(Claims claims, String username) {
+        return username.equals(claims.getSubject()) && !isExpired(claims);
     }
 
     // Authenticate user
@@ -92,4 +117,20 @@ public class JwtService {
         System.out.println("Authentication object: " + auth);
         System.out.println("Email from auth: " + auth.getName()); // Prints the email
     }
-}
\ No newline at end of file
+
+    private void cache(String token, Claims claims) {
+        if (verifiedTokens.size() >= MAX_CACHED_TOKENS) {
+            verifiedTokens.values().removeIf(JwtService::isExpired);
+            if (verifiedTokens.size() >= MAX_CACHED_TOKENS) {
+                // Still full of live tokens: start over rather than grow without bound
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(token, claims);
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.reservation.security;
+
+import com.example.reservation.util.TokenBuckets;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiting of the expensive routes (login, registration, booking), placed before
+ * the JWT filter. Every request is charged to its remote address and, with a valid bearer token, also
+ * to its user, so neither switching addresses nor rotating accounts gets around the limit. Each route
+ * has its own buckets for users and for addresses, keyed by the raw subject and address strings the
+ * request already holds, so checking an existing client allocates nothing.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int BUCKET_LOCK_STRIPES = 64;
+
+    private final RateLimitProperties properties;
+    private final JwtService jwtService;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<RouteLimit> limits;
+
+    public RateLimitFilter(RateLimitProperties properties, JwtService jwtService, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jwtService = jwtService;
+        this.limits = properties.rules().stream()
+                .map(rule -> new RouteLimit(rule,
+                        rule.period().toNanos(),
+                        new TokenBuckets(BUCKET_LOCK_STRIPES),
+                        new TokenBuckets(BUCKET_LOCK_STRIPES),
+                        counter(meterRegistry, rule, "allowed"),
+                        counter(meterRegistry, rule, "rejected")))
+                .toList();
+        Gauge.builder("reservation.rate.limit.buckets", this, RateLimitFilter::bucketCount)
+                .description("Client token buckets currently held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RouteLimit limit = properties.enabled() ? match(request) : null;
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimitProperties.Rule rule = limit.rule();
+        long now = System.nanoTime();
+        String user = user(request);
+        long waitNanos = user != null ? limit.users().tryAcquire(user, rule.capacity(), limit.periodNanos(), now) : 0;
+        if (waitNanos == 0) {
+            waitNanos = limit.addresses().tryAcquire(request.getRemoteAddr(), rule.addressCapacity(),
+                    limit.periodNanos(), now);
+            if (waitNanos > 0 && user != null) {
+                // Not let through, so not charged to the user either
+                limit.users().refund(user, rule.capacity());
+            }
+        }
+        if (waitNanos > 0) {
+            limit.rejected().increment();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.getWriter().write("Too many requests, please retry later");
+            return;
+        }
+        limit.allowed().increment();
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.rate-limit.eviction-interval:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (RouteLimit limit : limits) {
+            limit.users().evictIdle(properties.idleTimeout().toNanos(), now);
+            limit.addresses().evictIdle(properties.idleTimeout().toNanos(), now);
+        }
+    }
+
+    private int bucketCount() {
+        int count = 0;
+        for (RouteLimit limit : limits) {
+            count += limit.users().size() + limit.addresses().size();
+        }
+        return count;
+    }
+
+    private RouteLimit match(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (RouteLimit limit : limits) {
+            String method = limit.rule().method();
+            if ((method == null || method.equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(limit.rule().path(), path)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    // Subject of a valid bearer token, or null; the JWT filter verifies the token again right after,
+    // from the verified-token cache
+    private String user(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                return jwtService.verify(authHeader.substring(7)).getSubject();
+            } catch (JwtException | IllegalArgumentException e) {
+                // Invalid token: limited by address only, like anonymous clients
+            }
+        }
+        return null;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, RateLimitProperties.Rule rule, String outcome) {
+        return Counter.builder("reservation.rate.limit.requests")
+                .description("Requests checked by the rate limiter")
+                .tag("route", (rule.method() != null ? rule.method() + " " : "") + rule.path())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record RouteLimit(RateLimitProperties.Rule rule, long periodNanos, TokenBuckets users,
+                              TokenBuckets addresses, Counter allowed, Counter rejected) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.reservation.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+// Limits per route, bound from reservation.rate-limit.* in application.properties
+@ConfigurationProperties(prefix = "reservation.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10m") Duration idleTimeout,
+        List<Rule> rules) {
+
+    public RateLimitProperties {
+        rules = rules != null ? List.copyOf(rules) : List.of();
+    }
+
+    // Each user may send capacity requests per period to paths matching the Ant pattern, and each remote
+    // address addressCapacity (default: capacity) whoever sends them; method null matches any
+    public record Rule(String method, String path, int capacity, Duration period, Integer addressCapacity) {
+
+        public Rule {
+            if (addressCapacity == null) {
+                addressCapacity = capacity;
+            }
+        }
+    }
+}
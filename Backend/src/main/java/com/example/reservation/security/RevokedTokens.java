@@ -0,0 +1,117 @@
+package com.example.reservation.security;
+
+import com.example.reservation.model.RevokedToken;
+import com.example.reservation.repository.RevokedTokenRepository;
+import com.example.reservation.util.BloomFilter;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Revoked token ids (jti), persisted in revoked_token and mirrored in a Bloom filter so that the
+ * usual "not revoked" answer needs no query. The table is only read on a Bloom filter hit.
+ * Revocations made on other nodes reach this filter through a frequent poll of the rows revoked
+ * since the previous one, so they take effect here within the refresh interval.
+ */
+@Component
+public class RevokedTokens {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokens.class);
+
+    private static final int MIN_EXPECTED_TOKENS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    // Polls re-read this far back, for rows committed late or stamped by a node whose clock lags
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private volatile BloomFilter filter = new BloomFilter(MIN_EXPECTED_TOKENS, FALSE_POSITIVE_RATE);
+    // Filter being rebuilt; revocations during the rebuild go to both
+    private volatile BloomFilter rebuilding;
+    private volatile boolean loaded;
+    // Start of the last rebuild or poll; guarded by this
+    private LocalDateTime refreshedAt;
+
+    public RevokedTokens(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    public void revoke(String jti, Date expiresAt) {
+        LocalDateTime expiry = expiresAt != null
+                ? LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault())
+                : LocalDateTime.now().plusNanos(JwtService.EXPIRATION_TIME * 1_000_000);
+        revokedTokenRepository.save(new RevokedToken(jti, expiry, LocalDateTime.now()));
+        put(jti);
+    }
+
+    // Rebuilding filter first, current filter second: if the rebuild swaps in between, the current
+    // filter read afterwards is the new one, and if no rebuild was running, the next one reads the row
+    private void put(String jti) {
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(jti);
+        }
+        filter.put(jti);
+    }
+
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            throw new IllegalArgumentException("Token has no id and cannot be revoked");
+        }
+        revoke(claims.getId(), claims.getExpiration());
+    }
+
+    // Tokens issued before jti was added cannot be revoked and expire on their own
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            return false;
+        }
+        if (loaded && !filter.mightContain(jti)) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(jti);
+    }
+
+    // Also drops expired entries, which keeps the filter sized to the live revocations
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reservation.security.revoked-tokens.rebuild-interval:3600000}",
+            initialDelayString = "${reservation.security.revoked-tokens.rebuild-interval:3600000}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        long live = revokedTokenRepository.count();
+        BloomFilter next = new BloomFilter((int) Math.max(MIN_EXPECTED_TOKENS, live * 2), FALSE_POSITIVE_RATE);
+        rebuilding = next;
+        List<String> jtis = revokedTokenRepository.findLiveJtis(now);
+        jtis.forEach(next::put);
+        filter = next;
+        rebuilding = null;
+        refreshedAt = now;
+        loaded = true;
+        logger.info("Revoked token filter rebuilt with {} tokens in {} ms",
+                jtis.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Picks up revocations made by other nodes since the last rebuild or poll
+    @Scheduled(fixedDelayString = "${reservation.security.revoked-tokens.refresh-interval:5000}",
+            initialDelayString = "${reservation.security.revoked-tokens.refresh-interval:5000}")
+    public synchronized void refresh() {
+        if (refreshedAt == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findJtisRevokedSince(refreshedAt.minus(REFRESH_OVERLAP)).forEach(this::put);
+        refreshedAt = now;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.reservation.security;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens issued to a user before their account was changed or deleted. Only needed when the
+ * principal is built from token claims: the claims of such tokens may no longer match the user.
+ * Entries are dropped once every token they could reject has expired anyway.
+ */
+@Component
+public class UserTokenRevocations {
+
+    // User id -> epoch second up to which issued tokens are rejected
+    private final Map<Long, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    public void revoke(Long userId) {
+        long now = Instant.now().getEpochSecond();
+        // iat has one-second precision, so tokens issued in the current second are rejected too
+        revokedUntil.put(userId, now);
+        long oldestLiveToken = now - JwtService.EXPIRATION_TIME / 1000;
+        revokedUntil.values().removeIf(second -> second < oldestLiveToken);
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        Long until = revokedUntil.get(userId);
+        return until != null && (issuedAt == null || issuedAt.toInstant().getEpochSecond() <= until);
+    }
+}
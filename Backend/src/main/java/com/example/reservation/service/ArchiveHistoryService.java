@@ -0,0 +1,68 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.CursorPage;
+import com.example.reservation.dto.KeysetCursor;
+import com.example.reservation.dto.NotificationSummary;
+import com.example.reservation.dto.ReservationSummary;
+import com.example.reservation.repository.ArchivedNotificationRepository;
+import com.example.reservation.repository.ArchivedReservationRepository;
+import com.example.reservation.security.CurrentUser;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Keyset-paginated reads of what RetentionArchiver moved out of the live tables, newest first
+@Service
+public class ArchiveHistoryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ArchivedNotificationRepository archivedNotificationRepository;
+    private final ArchivedReservationRepository archivedReservationRepository;
+    private final CurrentUser currentUser;
+
+    public ArchiveHistoryService(ArchivedNotificationRepository archivedNotificationRepository,
+                                 ArchivedReservationRepository archivedReservationRepository,
+                                 CurrentUser currentUser) {
+        this.archivedNotificationRepository = archivedNotificationRepository;
+        this.archivedReservationRepository = archivedReservationRepository;
+        this.currentUser = currentUser;
+    }
+
+    public CursorPage<NotificationSummary> getNotificationHistory(String before, int limit) {
+        KeysetCursor cursor = decode(before, limit);
+        List<NotificationSummary> rows = archivedNotificationRepository.findHistoryPage(currentUser.get().getId(),
+                cursor != null ? cursor.time() : null, cursor != null ? cursor.id() : null, Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<NotificationSummary> items = rows.subList(0, limit);
+        NotificationSummary last = items.get(limit - 1);
+        return new CursorPage<>(items, new KeysetCursor(last.createdAt(), last.id()).encode());
+    }
+
+    // The authenticated user's own past reservations
+    public CursorPage<ReservationSummary> getMyReservationHistory(String before, int limit) {
+        return getReservationHistory(null, currentUser.get().getId(), before, limit);
+    }
+
+    public CursorPage<ReservationSummary> getReservationHistory(Long roomId, Long userId, String before, int limit) {
+        KeysetCursor cursor = decode(before, limit);
+        List<ReservationSummary> rows = archivedReservationRepository.findHistoryPage(roomId, userId,
+                cursor != null ? cursor.time() : null, cursor != null ? cursor.id() : null, Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ReservationSummary> items = rows.subList(0, limit);
+        ReservationSummary last = items.get(limit - 1);
+        return new CursorPage<>(items, new KeysetCursor(last.startTime(), last.id()).encode());
+    }
+
+    private KeysetCursor decode(String before, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return before != null ? KeysetCursor.decode(before) : null;
+    }
+}
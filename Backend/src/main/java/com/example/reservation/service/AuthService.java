@@ -4,6 +4,8 @@ import com.example.reservation.exception.ResourceNotFoundException;
 import com.example.reservation.model.User;
 import com.example.reservation.repository.UserRepository;
 import com.example.reservation.security.JwtService;
+import com.example.reservation.security.PasswordHashingExecutor;
+import com.example.reservation.security.RevokedTokens;
 import com.example.reservation.dto.AuthRequest;
 import com.example.reservation.dto.AuthResponse;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +20,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class AuthService {
 
@@ -36,16 +40,33 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Autowired
+    private RevokedTokens revokedTokens;
+
+    // BCrypt runs on the bounded hashing pool, not on the request thread
+    public CompletableFuture<AuthResponse> authenticateAsync(AuthRequest authRequest) {
+        return hashingExecutor.submit(() -> authenticate(authRequest));
+    }
+
+    public CompletableFuture<AuthResponse> registerAsync(User user) {
+        return hashingExecutor.submit(() -> register(user));
+    }
+
     // Authentification de l'utilisateur et génération du JWT
     public AuthResponse authenticate(AuthRequest authRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword())
         );
 
-        User user = userRepository.findByEmail(authRequest.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        // The principal is the user entity, with its password rehashed if the BCrypt cost was raised
+        User user = authentication.getPrincipal() instanceof User principal ? principal
+                : userRepository.findByEmail(authRequest.getUsername())
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        String jwtToken = jwtService.generateToken(user.getEmail(), user.getRole().name());
+        String jwtToken = jwtService.generateToken(user.getId(), user.getEmail(), user.getRole().name());
 
         return new AuthResponse(jwtToken, user);
     }
@@ -55,7 +76,7 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         User savedUser = userRepository.save(user);
 
-        String jwtToken = jwtService.generateToken(savedUser.getEmail(), savedUser.getRole().name());
+        String jwtToken = jwtService.generateToken(savedUser.getId(), savedUser.getEmail(), savedUser.getRole().name());
 
         return new AuthResponse(jwtToken, savedUser);
     }
@@ -71,4 +92,9 @@ public class AuthService {
             }
         }
     }
-}
\ No newline at end of file
+
+    // Revokes the token until its expiry; throws JwtException if it is not a valid token
+    public void logout(String jwt) {
+        revokedTokens.revoke(jwtService.verify(jwt));
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.reservation.service;
+
+import com.example.reservation.config.TimeSlotBackfill;
+import com.example.reservation.dto.ImportReport;
+import com.example.reservation.dto.ImportReport.RowError;
+import com.example.reservation.dto.ReservationSlot;
+import com.example.reservation.model.Reservation;
+import com.example.reservation.model.Room;
+import com.example.reservation.model.TimeSlot;
+import com.example.reservation.model.User;
+import com.example.reservation.repository.ReservationRepository;
+import com.example.reservation.repository.RoomRepository;
+import com.example.reservation.repository.UserRepository;
+import com.example.reservation.util.CsvLines;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk CSV import of rooms and reservations. Files are read line by line, reservations are
+ * validated per room in parallel against in-memory snapshots of the rooms' existing bookings, and
+ * accepted rows are written with JDBC batches (hibernate.jdbc.batch_size) flushed every BATCH_SIZE rows.
+ */
+@Service
+public class ImportService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final RoomRepository roomRepository;
+    private final UserRepository userRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationService reservationService;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final ReservationReminders reminders;
+    private final ReservationHolds holds;
+    private final TimeSlotBackfill timeSlotBackfill;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ImportService(RoomRepository roomRepository, UserRepository userRepository,
+                         ReservationRepository reservationRepository, ReservationService reservationService,
+                         RoomOccupancyIndex occupancyIndex, ReservationReminders reminders,
+                         ReservationHolds holds, TimeSlotBackfill timeSlotBackfill, PlatformTransactionManager transactionManager) {
+        this.roomRepository = roomRepository;
+        this.userRepository = userRepository;
+        this.reservationRepository = reservationRepository;
+        this.reservationService = reservationService;
+        this.occupancyIndex = occupancyIndex;
+        this.reminders = reminders;
+        this.holds = holds;
+        this.timeSlotBackfill = timeSlotBackfill;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Columns: name,capacity,location
+    public ImportReport importRooms(InputStream csv) throws IOException {
+        List<RowError> errors = new ArrayList<>();
+        List<Room> rooms = new ArrayList<>();
+        int rows = readRows(csv, errors, (line, fields) -> {
+            requireColumns(fields, 3, "name,capacity,location");
+            int capacity = Integer.parseInt(fields.get(1));
+            if (fields.get(0).isEmpty()) {
+                throw new IllegalArgumentException("Room name is required");
+            }
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive");
+            }
+            Room room = new Room();
+            room.setName(fields.get(0));
+            room.setCapacity(capacity);
+            room.setLocation(fields.get(2));
+            rooms.add(room);
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Room> batch = new ArrayList<>(BATCH_SIZE);
+            for (Room room : rooms) {
+                entityManager.persist(room);
+                batch.add(room);
+                if (batch.size() == BATCH_SIZE) {
+                    flushAndClear(batch, new ArrayList<>());
+                }
+            }
+            flushAndClear(batch, new ArrayList<>());
+        });
+        return new ImportReport(rows, rooms.size(), sorted(errors));
+    }
+
+    // Columns: roomId,userEmail,date,startTime,endTime,purpose,attendees
+    public ImportReport importReservations(InputStream csv) throws IOException {
+        List<RowError> errors = new ArrayList<>();
+        List<ReservationRow> parsed = new ArrayList<>();
+        int rows = readRows(csv, errors, (line, fields) -> {
+            requireColumns(fields, 7, "roomId,userEmail,date,startTime,endTime,purpose,attendees");
+            LocalDate date = LocalDate.parse(fields.get(2));
+            parsed.add(new ReservationRow(line, Long.parseLong(fields.get(0)), fields.get(1),
+                    LocalDateTime.of(date, LocalTime.parse(fields.get(3))),
+                    LocalDateTime.of(date, LocalTime.parse(fields.get(4))),
+                    fields.get(5), Integer.parseInt(fields.get(6))));
+        });
+
+        Map<Long, List<ReservationRow>> byRoom = parsed.stream()
+                .collect(Collectors.groupingBy(ReservationRow::roomId));
+        Map<Long, Integer> capacities = loadCapacities(byRoom.keySet());
+        Map<String, Long> userIds = loadUserIds(parsed.stream().map(ReservationRow::userEmail).collect(Collectors.toSet()));
+
+        // Locks keep live bookings of the imported rooms out until the index reflects the import: the
+        // striped locks on this node, the room row locks (taken in id order) on the others
+        int imported = reservationService.withRoomLocks(byRoom.keySet(), () -> {
+            List<ReservationRow> accepted = new ArrayList<>();
+            List<Long> ids = transactionTemplate.execute(status -> {
+                byRoom.keySet().stream().sorted().forEach(roomRepository::findByIdForUpdate);
+                // Read on this thread, under the row locks; the parallel validation only works in memory
+                Map<Long, BookedSlots> booked = new HashMap<>();
+                byRoom.forEach((roomId, roomRows) -> booked.put(roomId, loadBookedSlots(roomId, roomRows)));
+                List<RoomValidation> validations = byRoom.entrySet().parallelStream()
+                        .map(entry -> validateRoom(entry.getKey(), entry.getValue(), capacities.get(entry.getKey()),
+                                userIds, booked.get(entry.getKey())))
+                        .toList();
+                validations.forEach(validation -> {
+                    accepted.addAll(validation.accepted());
+                    errors.addAll(validation.errors());
+                });
+                return insertReservations(accepted, userIds);
+            });
+            for (int i = 0; i < accepted.size(); i++) {
+                ReservationRow row = accepted.get(i);
+                occupancyIndex.put(ids.get(i), row.roomId(), row.startTime(), row.endTime());
+                reminders.schedule(ids.get(i), userIds.get(row.userEmail()), row.startTime());
+            }
+            return accepted.size();
+        });
+        return new ImportReport(rows, imported, sorted(errors));
+    }
+
+    // What a booking would be checked against, over the time span of the room's rows: reservations in the
+    // database (one query), holds of every node (one query), bookings in this node's index, and legacy rows
+    // not yet backfilled
+    private BookedSlots loadBookedSlots(Long roomId, List<ReservationRow> rows) {
+        LocalDateTime from = rows.stream().map(ReservationRow::startTime).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = rows.stream().map(ReservationRow::endTime).max(Comparator.naturalOrder()).orElseThrow();
+        if (!from.isBefore(to)) {
+            return new BookedSlots(List.of());
+        }
+        List<ReservationSlot> slots = new ArrayList<>(reservationRepository.findSlotsByRoomBetween(roomId, from, to));
+        slots.addAll(holds.heldSlots(roomId, from, to));
+        slots.addAll(occupancyIndex.busySlots(roomId, from, to));
+        slots.addAll(timeSlotBackfill.pendingSlots(roomId, from, to));
+        return new BookedSlots(slots);
+    }
+
+    // Rows of one room, checked in start order against each other and, like a booking, against what
+    // was already booked
+    private RoomValidation validateRoom(Long roomId, List<ReservationRow> rows, Integer capacity,
+                                        Map<String, Long> userIds, BookedSlots booked) {
+        List<ReservationRow> accepted = new ArrayList<>();
+        List<RowError> errors = new ArrayList<>();
+        List<ReservationRow> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparing(ReservationRow::startTime).thenComparingLong(ReservationRow::line));
+        ReservationRow latestEnding = null;
+        for (ReservationRow row : ordered) {
+            String error = null;
+            if (capacity == null) {
+                error = "Room not found with id: " + roomId;
+            } else if (!userIds.containsKey(row.userEmail())) {
+                error = "User not found with email: " + row.userEmail();
+            } else if (!row.startTime().isBefore(row.endTime())) {
+                error = "Start time must be before end time";
+            } else if (row.attendees() > capacity) {
+                error = "Number of attendees exceeds room capacity";
+            } else if (latestEnding != null && row.startTime().isBefore(latestEnding.endTime())) {
+                error = "Overlaps the reservation on line " + latestEnding.line();
+            } else if (booked.overlaps(row.startTime(), row.endTime())) {
+                error = "The room is already reserved for the specified time slot";
+            }
+            if (error != null) {
+                errors.add(new RowError(row.line(), error));
+                continue;
+            }
+            accepted.add(row);
+            if (latestEnding == null || row.endTime().isAfter(latestEnding.endTime())) {
+                latestEnding = row;
+            }
+        }
+        return new RoomValidation(accepted, errors);
+    }
+
+    // Persisted through Hibernate so ids come from the pooled sequences; flushes go out as JDBC batches
+    private List<Long> insertReservations(List<ReservationRow> rows, Map<String, Long> userIds) {
+        List<Reservation> reservations = new ArrayList<>(BATCH_SIZE);
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (ReservationRow row : rows) {
+            Reservation reservation = new Reservation();
+            reservation.setRoom(entityManager.getReference(Room.class, row.roomId()));
+            reservation.setUser(entityManager.getReference(User.class, userIds.get(row.userEmail())));
+            reservation.setTimeSlot(new TimeSlot(row.startTime(), row.endTime()));
+            reservation.setPurpose(row.purpose());
+            reservation.setAttendees(row.attendees());
+            entityManager.persist(reservation);
+            reservations.add(reservation);
+            if (reservations.size() == BATCH_SIZE) {
+                flushAndClear(reservations, ids);
+            }
+        }
+        flushAndClear(reservations, ids);
+        return ids;
+    }
+
+    private void flushAndClear(List<?> entities, List<Long> ids) {
+        entityManager.flush();
+        entityManager.clear();
+        for (Object entity : entities) {
+            if (entity instanceof Reservation reservation) {
+                ids.add(reservation.getId());
+            }
+        }
+        entities.clear();
+    }
+
+    private Map<Long, Integer> loadCapacities(Set<Long> roomIds) {
+        Map<Long, Integer> capacities = new HashMap<>();
+        for (List<Long> chunk : chunks(new ArrayList<>(roomIds))) {
+            for (Room room : roomRepository.findAllById(chunk)) {
+                capacities.put(room.getId(), room.getCapacity());
+            }
+        }
+        return capacities;
+    }
+
+    private Map<String, Long> loadUserIds(Set<String> emails) {
+        Map<String, Long> userIds = new HashMap<>();
+        for (List<String> chunk : chunks(new ArrayList<>(emails))) {
+            for (User user : userRepository.findByEmailIn(chunk)) {
+                userIds.put(user.getEmail(), user.getId());
+            }
+        }
+        return userIds;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += BATCH_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + BATCH_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    // Skips the header line; rows failing to parse are reported and left out
+    private static int readRows(InputStream csv, List<RowError> errors, RowHandler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        reader.readLine();
+        long lineNumber = 1;
+        int rows = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            rows++;
+            try {
+                handler.handle(lineNumber, CsvLines.split(line));
+            } catch (RuntimeException e) {
+                errors.add(new RowError(lineNumber, e.getMessage()));
+            }
+        }
+        return rows;
+    }
+
+    private static void requireColumns(List<String> fields, int count, String columns) {
+        if (fields.size() < count) {
+            throw new IllegalArgumentException("Expected columns: " + columns);
+        }
+    }
+
+    private static List<RowError> sorted(List<RowError> errors) {
+        errors.sort(Comparator.comparingLong(RowError::line));
+        return errors;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(long line, List<String> fields);
+    }
+
+    private record ReservationRow(long line, Long roomId, String userEmail, LocalDateTime startTime,
+                                  LocalDateTime endTime, String purpose, int attendees) {
+    }
+
+    private record RoomValidation(List<ReservationRow> accepted, List<RowError> errors) {
+    }
+
+    // Booked slots of one room sorted by start, with the latest end among each prefix: a half-open range
+    // [start, end) overlaps one of them if some slot starting before end ends after start
+    private static final class BookedSlots {
+        private final LocalDateTime[] starts;
+        private final LocalDateTime[] latestEnds;
+
+        BookedSlots(List<ReservationSlot> slots) {
+            List<ReservationSlot> sorted = new ArrayList<>(slots);
+            sorted.sort(Comparator.comparing(ReservationSlot::startTime));
+            starts = new LocalDateTime[sorted.size()];
+            latestEnds = new LocalDateTime[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                ReservationSlot slot = sorted.get(i);
+                starts[i] = slot.startTime();
+                latestEnds[i] = i == 0 || slot.endTime().isAfter(latestEnds[i - 1])
+                        ? slot.endTime() : latestEnds[i - 1];
+            }
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            int startingBefore = Arrays.binarySearch(starts, end);
+            // Last slot starting strictly before end
+            int last = startingBefore >= 0 ? lastBefore(startingBefore) : -startingBefore - 2;
+            return last >= 0 && latestEnds[last].isAfter(start);
+        }
+
+        // Equal starts may repeat; step back over the ones equal to end
+        private int lastBefore(int index) {
+            LocalDateTime end = starts[index];
+            while (index >= 0 && !starts[index].isBefore(end)) {
+                index--;
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.BroadcastProgress;
+import com.example.reservation.dto.BroadcastRequest;
+import com.example.reservation.exception.ResourceNotFoundException;
+import com.example.reservation.exception.ServiceBusyException;
+import com.example.reservation.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends one message to a whole audience in the background. Recipient ids are read in keyset chunks
+ * and each chunk is inserted as one batched transaction, so a broadcast costs a few statements per
+ * thousand users instead of one request per user. Progress is kept in memory for the last broadcasts.
+ */
+@Service
+public class NotificationBroadcastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationBroadcastService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_PENDING_BROADCASTS = 10;
+    private static final int MAX_KEPT_BROADCASTS = 100;
+
+    private final UserRepository userRepository;
+    private final NotificationWriter notificationWriter;
+    // Ordered by id, i.e. by start, so eviction meets the oldest broadcasts first
+    private final Map<Long, Broadcast> broadcasts = new ConcurrentSkipListMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    // One broadcast at a time, so a large one cannot starve the notification writer of connections
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING_BROADCASTS), runnable -> {
+                Thread thread = new Thread(runnable, "notification-broadcast");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    public NotificationBroadcastService(UserRepository userRepository, NotificationWriter notificationWriter) {
+        this.userRepository = userRepository;
+        this.notificationWriter = notificationWriter;
+    }
+
+    public BroadcastProgress start(BroadcastRequest request) {
+        if (request.message() == null || request.message().isBlank()) {
+            throw new IllegalArgumentException("Message cannot be empty");
+        }
+        int targets = (request.role() != null ? 1 : 0) + (request.roomId() != null ? 1 : 0)
+                + (request.location() != null ? 1 : 0);
+        if (targets != 1) {
+            throw new IllegalArgumentException("Exactly one of role, roomId or location is required");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Broadcast broadcast = new Broadcast(ids.incrementAndGet(), request, now, count(request, now));
+        broadcasts.put(broadcast.id, broadcast);
+        evictOldBroadcasts();
+        try {
+            executor.execute(() -> run(broadcast));
+        } catch (RejectedExecutionException e) {
+            broadcasts.remove(broadcast.id);
+            throw new ServiceBusyException("Too many broadcasts in progress, please retry later", 30);
+        }
+        return broadcast.progress();
+    }
+
+    public BroadcastProgress getProgress(Long id) {
+        Broadcast broadcast = broadcasts.get(id);
+        if (broadcast == null) {
+            throw new ResourceNotFoundException("Broadcast not found with id: " + id);
+        }
+        return broadcast.progress();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Broadcast broadcast) {
+        broadcast.status = "RUNNING";
+        String message = broadcast.request.message().trim();
+        try {
+            long afterId = 0;
+            List<Long> chunk;
+            do {
+                chunk = nextChunk(broadcast.request, broadcast.startedAt, afterId);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                int written = notificationWriter.writeNow(chunk, message);
+                broadcast.sent.addAndGet(written);
+                broadcast.failed.addAndGet(chunk.size() - written);
+                afterId = chunk.get(chunk.size() - 1);
+            } while (chunk.size() == CHUNK_SIZE && !Thread.currentThread().isInterrupted());
+            broadcast.status = "COMPLETED";
+        } catch (RuntimeException e) {
+            logger.error("Broadcast {} failed", broadcast.id, e);
+            broadcast.status = "FAILED";
+        } finally {
+            broadcast.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private List<Long> nextChunk(BroadcastRequest request, LocalDateTime now, long afterId) {
+        Limit limit = Limit.of(CHUNK_SIZE);
+        if (request.role() != null) {
+            return userRepository.findIdsByRole(request.role(), afterId, limit);
+        }
+        if (request.roomId() != null) {
+            return userRepository.findIdsWithUpcomingReservationInRoom(request.roomId(), now, afterId, limit);
+        }
+        return userRepository.findIdsWithUpcomingReservationAt(request.location(), now, afterId, limit);
+    }
+
+    private long count(BroadcastRequest request, LocalDateTime now) {
+        if (request.role() != null) {
+            return userRepository.countByRole(request.role());
+        }
+        if (request.roomId() != null) {
+            return userRepository.countWithUpcomingReservationInRoom(request.roomId(), now);
+        }
+        return userRepository.countWithUpcomingReservationAt(request.location(), now);
+    }
+
+    private void evictOldBroadcasts() {
+        Iterator<Long> it = broadcasts.keySet().iterator();
+        while (broadcasts.size() > MAX_KEPT_BROADCASTS && it.hasNext()) {
+            Broadcast oldest = broadcasts.get(it.next());
+            if (oldest != null && oldest.finishedAt != null) {
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Broadcast {
+        private final Long id;
+        private final BroadcastRequest request;
+        private final LocalDateTime startedAt;
+        private final long total;
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile String status = "PENDING";
+        private volatile LocalDateTime finishedAt;
+
+        private Broadcast(Long id, BroadcastRequest request, LocalDateTime startedAt, long total) {
+            this.id = id;
+            this.request = request;
+            this.startedAt = startedAt;
+            this.total = total;
+        }
+
+        private BroadcastProgress progress() {
+            return new BroadcastProgress(id, status, total, sent.get(), failed.get(), startedAt, finishedAt);
+        }
+    }
+}
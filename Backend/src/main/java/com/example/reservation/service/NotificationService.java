@@ -1,47 +1,68 @@
 package com.example.reservation.service;
 
+import com.example.reservation.dto.CursorPage;
+import com.example.reservation.dto.KeysetCursor;
+import com.example.reservation.dto.NotificationSummary;
 import com.example.reservation.exception.ResourceNotFoundException;
 import com.example.reservation.model.Notification;
 import com.example.reservation.model.User;
 import com.example.reservation.repository.NotificationRepository;
-import com.example.reservation.repository.UserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import com.example.reservation.security.CurrentUser;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class NotificationService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
+    private final NotificationStreams notificationStreams;
+    private final NotificationWriter notificationWriter;
+    private final UnreadNotificationCounts unreadCounts;
 
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationService(NotificationRepository notificationRepository, CurrentUser currentUser,
+                               NotificationStreams notificationStreams,
+                               NotificationWriter notificationWriter, UnreadNotificationCounts unreadCounts) {
         this.notificationRepository = notificationRepository;
-        this.userRepository = userRepository;
+        this.currentUser = currentUser;
+        this.notificationStreams = notificationStreams;
+        this.notificationWriter = notificationWriter;
+        this.unreadCounts = unreadCounts;
     }
 
-    public Notification sendNotification(Long userId, String message) {
-        // Check if the user exists
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
-
-        // Create and save the notification
-        Notification notification = new Notification();
-        notification.setMessage(message.trim()); // Store only the message
-        notification.setSeen(false);
-        notification.setCreatedAt(LocalDateTime.now());
-        notification.setUser(user);
+    // Queued and written in batches by NotificationWriter, which also pushes it to the user's streams
+    public void sendNotification(Long userId, String message) {
+        if (message == null || message.isBlank()) {
+            throw new IllegalArgumentException("Message cannot be empty");
+        }
+        notificationWriter.enqueue(userId, message.trim()); // Store only the message
+    }
 
-        return notificationRepository.save(notification);
+    // SSE stream of the authenticated user's new notifications
+    public SseEmitter subscribe(Long lastEventId) {
+        return notificationStreams.subscribe(getAuthenticatedUser().getId(), lastEventId);
     }
 
-    // Retrieve all notifications for the authenticated user
-    public List<Notification> getUserNotifications() {
-        User user = getAuthenticatedUser();
-        return notificationRepository.findByUserId(user.getId());
+    // Page of the authenticated user's inbox, newest first
+    public CursorPage<NotificationSummary> getUserNotifications(String before, int limit, boolean unseenOnly) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        KeysetCursor cursor = before != null ? KeysetCursor.decode(before) : null;
+        // One extra row tells whether there is a next page
+        List<NotificationSummary> rows = notificationRepository.findInboxPage(getAuthenticatedUser().getId(), unseenOnly,
+                cursor != null ? cursor.time() : null, cursor != null ? cursor.id() : null, Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<NotificationSummary> items = rows.subList(0, limit);
+        NotificationSummary last = items.get(limit - 1);
+        return new CursorPage<>(items, new KeysetCursor(last.createdAt(), last.id()).encode());
     }
 
     // Mark a specific notification as read
@@ -55,19 +76,28 @@ public class NotificationService {
             throw new IllegalStateException("You are not authorized to mark this notification as read");
         }
 
+        if (notificationRepository.markSeen(notificationId) == 1) {
+            unreadCounts.add(user.getId(), -1);
+        }
         notification.setSeen(true);
-        return notificationRepository.save(notification);
+        return notification;
+    }
+
+    // One UPDATE for the whole inbox; returns how many notifications changed
+    public int markAllAsRead() {
+        Long userId = getAuthenticatedUser().getId();
+        int updated = notificationRepository.markAllSeen(userId);
+        // Only what the UPDATE changed: notifications written meanwhile stay unread
+        unreadCounts.add(userId, -updated);
+        return updated;
+    }
+
+    public long getUnreadCount() {
+        return unreadCounts.get(getAuthenticatedUser().getId());
     }
 
     // Helper method to get the authenticated user
     private User getAuthenticatedUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (principal instanceof UserDetails) {
-            String email = ((UserDetails) principal).getUsername();
-            return userRepository.findByEmail(email)
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        } else {
-            throw new IllegalStateException("User not authenticated");
-        }
+        return currentUser.get();
     }
 }
\ No newline at end of file
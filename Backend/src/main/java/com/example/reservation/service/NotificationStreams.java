@@ -0,0 +1,243 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.NotificationSummary;
+import com.example.reservation.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open notification streams by user. Publishing only enqueues into each connection's bounded buffer;
+ * a small sender pool writes to the sockets, so a slow client never blocks the publisher. A client
+ * whose buffer overflows is disconnected and catches up through Last-Event-ID when it reconnects.
+ * <p>
+ * Ids come from pooled blocks held by different writers, so a notification can be committed, and
+ * published, after one with a higher id. Streams therefore skip only the ids they recently sent, and a
+ * reconnect also replays what was created shortly before the last event; clients may see an event
+ * again after reconnecting and should ignore ids they already have.
+ */
+@Component
+public class NotificationStreams {
+
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int BUFFER_SIZE = 64;
+    private static final int MAX_STREAMS_PER_USER = 5;
+    private static final int MAX_REPLAY = 100;
+    // Longer than a notification waits between getting its id and being committed
+    private static final Duration REPLAY_OVERLAP = Duration.ofMinutes(1);
+    private static final int RECENT_IDS = 256;
+    private static final int SENDER_THREADS = 4;
+    private static final Object HEARTBEAT = new Object();
+
+    private final NotificationRepository notificationRepository;
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final Counter overflows;
+    private final ExecutorService sender;
+
+    public NotificationStreams(NotificationRepository notificationRepository, MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(SENDER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "notification-sse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("reservation.notification.streams", openStreams, AtomicInteger::get)
+                .description("Open notification SSE connections")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("reservation.notification.stream.overflows")
+                .description("Connections closed because their send buffer was full")
+                .register(meterRegistry);
+    }
+
+    // Notifications after lastEventId are replayed from the database before live events
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+        register(subscriber);
+
+        // Live events published meanwhile wait in the buffer; those already replayed are skipped by id
+        if (lastEventId != null) {
+            try {
+                LocalDateTime since = notificationRepository.findCreatedAt(userId, lastEventId)
+                        .map(createdAt -> createdAt.minus(REPLAY_OVERLAP))
+                        .orElse(null);
+                for (NotificationSummary event : notificationRepository.findEventsAfter(userId, lastEventId, since,
+                        Limit.of(MAX_REPLAY))) {
+                    send(subscriber, event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(subscriber);
+                return emitter;
+            }
+        }
+        subscriber.replaying = false;
+        scheduleDrain(subscriber);
+        return emitter;
+    }
+
+    public void publish(Long userId, NotificationSummary event) {
+        List<Subscriber> streams = subscribers.get(userId);
+        if (streams == null) {
+            return;
+        }
+        for (Subscriber subscriber : streams) {
+            if (!subscriber.buffer.offer(event)) {
+                overflows.increment();
+                close(subscriber);
+            } else if (!subscriber.replaying) {
+                scheduleDrain(subscriber);
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and detects dead clients
+    @Scheduled(fixedRateString = "${reservation.notifications.stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        for (List<Subscriber> streams : subscribers.values()) {
+            for (Subscriber subscriber : streams) {
+                if (!subscriber.replaying && subscriber.buffer.isEmpty() && subscriber.buffer.offer(HEARTBEAT)) {
+                    scheduleDrain(subscriber);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(streams -> streams.forEach(this::close));
+        sender.shutdown();
+    }
+
+    private void register(Subscriber subscriber) {
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(subscriber.userId, (id, streams) -> {
+            List<Subscriber> list = streams != null ? streams : new CopyOnWriteArrayList<>();
+            // Oldest connections of the user (e.g. forgotten tabs) make room
+            while (list.size() >= MAX_STREAMS_PER_USER) {
+                evicted.add(list.remove(0));
+            }
+            list.add(subscriber);
+            return list;
+        });
+        openStreams.incrementAndGet();
+        evicted.forEach(this::close);
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            openStreams.decrementAndGet();
+        }
+        subscribers.computeIfPresent(subscriber.userId, (id, streams) -> {
+            streams.remove(subscriber);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    private void close(Subscriber subscriber) {
+        unregister(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Object item;
+            while ((item = subscriber.buffer.poll()) != null) {
+                if (item == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    send(subscriber, (NotificationSummary) item);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            close(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.buffer.isEmpty() && !subscriber.closed.get()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    // Events replayed and also published while replaying are sent once
+    private void send(Subscriber subscriber, NotificationSummary event) throws IOException {
+        if (!subscriber.recentIds.add(event.id())) {
+            return;
+        }
+        subscriber.emitter.send(SseEmitter.event()
+                .id(String.valueOf(event.id()))
+                .name("notification")
+                .data(event));
+    }
+
+    private static final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean replaying = true;
+        private final RecentIds recentIds = new RecentIds(RECENT_IDS);
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+    }
+
+    // The last ids sent to one subscriber, oldest dropped first
+    private static final class RecentIds {
+        private final int capacity;
+        private final Set<Long> ids = new LinkedHashSet<>();
+
+        private RecentIds(int capacity) {
+            this.capacity = capacity;
+        }
+
+        // False if the id was already sent
+        synchronized boolean add(Long id) {
+            if (!ids.add(id)) {
+                return false;
+            }
+            if (ids.size() > capacity) {
+                Iterator<Long> oldest = ids.iterator();
+                oldest.next();
+                oldest.remove();
+            }
+            return true;
+        }
+    }
+}
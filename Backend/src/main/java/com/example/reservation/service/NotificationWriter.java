@@ -0,0 +1,210 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.NotificationSummary;
+import com.example.reservation.exception.ServiceBusyException;
+import com.example.reservation.model.Notification;
+import com.example.reservation.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for notifications. Callers only enqueue; one writer thread inserts them in
+ * batches of up to batch-size rows, or whatever arrived within max-delay, and then pushes them to the
+ * open SSE streams. When the queue is full, callers wait up to enqueue-timeout and are then
+ * rejected with a {@link ServiceBusyException}. Queued notifications are flushed on shutdown.
+ */
+@Component
+public class NotificationWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationWriter.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final NotificationStreams notificationStreams;
+    private final UnreadNotificationCounts unreadCounts;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingNotification> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long enqueueTimeoutNanos;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Timer flushLatency;
+    private final DistributionSummary batchSizes;
+    private final Counter failed;
+
+    public NotificationWriter(NotificationStreams notificationStreams, UnreadNotificationCounts unreadCounts,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${reservation.notifications.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${reservation.notifications.write-behind.batch-size:200}") int batchSize,
+                              @Value("${reservation.notifications.write-behind.max-delay:200ms}") Duration maxDelay,
+                              @Value("${reservation.notifications.write-behind.enqueue-timeout:100ms}") Duration enqueueTimeout) {
+        this.notificationStreams = notificationStreams;
+        this.unreadCounts = unreadCounts;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.writer = new Thread(this::run, "notification-writer");
+        writer.setDaemon(true);
+        Gauge.builder("reservation.notification.queue", queue, BlockingQueue::size)
+                .description("Notifications waiting to be written")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("reservation.notification.flush")
+                .description("Time to insert one batch of notifications")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("reservation.notification.flush.size")
+                .description("Notifications per batch")
+                .register(meterRegistry);
+        this.failed = Counter.builder("reservation.notification.failed")
+                .description("Notifications that could not be written, e.g. for a deleted user")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    public void enqueue(Long userId, String message) {
+        if (!running) {
+            throw new ServiceBusyException("Notifications are not accepted during shutdown", 5);
+        }
+        PendingNotification pending = new PendingNotification(userId, message, LocalDateTime.now());
+        try {
+            if (!queue.offer(pending, enqueueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new ServiceBusyException("Notification queue is full, please retry shortly", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while queueing the notification", 1);
+        }
+    }
+
+    // Writes one notification per user on the caller's thread, for broadcasts too large for the queue;
+    // returns how many were written
+    public int writeNow(List<Long> userIds, String message) {
+        LocalDateTime now = LocalDateTime.now();
+        return flush(userIds.stream()
+                .map(userId -> new PendingNotification(userId, message, now))
+                .toList());
+    }
+
+    // Stops accepting, then waits for the writer to flush what is queued
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            logger.warn("{} notifications were not written before shutdown", queue.size());
+        }
+    }
+
+    private void run() {
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingNotification first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Size or time trigger, whichever comes first
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingNotification next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to write notifications", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private int flush(List<PendingNotification> batch) {
+        long started = System.nanoTime();
+        List<Notification> saved;
+        try {
+            saved = transactionTemplate.execute(status -> insert(batch));
+        } catch (RuntimeException e) {
+            // One bad row (e.g. a deleted user) fails the batch: retry row by row to keep the others
+            saved = new ArrayList<>();
+            for (PendingNotification pending : batch) {
+                try {
+                    saved.addAll(transactionTemplate.execute(status -> insert(List.of(pending))));
+                } catch (RuntimeException rowFailure) {
+                    failed.increment();
+                    logger.warn("Notification for user {} dropped: {}", pending.userId(), rowFailure.getMessage());
+                }
+            }
+        }
+        flushLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+
+        for (Notification notification : saved) {
+            unreadCounts.add(notification.getUser().getId(), 1);
+            notificationStreams.publish(notification.getUser().getId(), new NotificationSummary(notification.getId(),
+                    notification.getMessage(), notification.isSeen(), notification.getCreatedAt()));
+        }
+        return saved.size();
+    }
+
+    // Pooled sequence ids and hibernate.jdbc.batch_size turn this into batched INSERTs at commit
+    private List<Notification> insert(List<PendingNotification> batch) {
+        List<Notification> notifications = new ArrayList<>(batch.size());
+        for (PendingNotification pending : batch) {
+            Notification notification = new Notification();
+            notification.setMessage(pending.message());
+            notification.setSeen(false);
+            notification.setCreatedAt(pending.createdAt());
+            notification.setUser(entityManager.getReference(User.class, pending.userId()));
+            entityManager.persist(notification);
+            notifications.add(notification);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return notifications;
+    }
+
+    private record PendingNotification(Long userId, String message, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.ReservationSummary;
+import com.example.reservation.repository.ReservationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+// Streams every reservation straight from the result set to the response, one row at a time
+@Service
+public class ReservationExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final String CSV_HEADER = "id,roomId,roomName,userId,userName,startTime,endTime,purpose,attendees";
+
+    private final ReservationRepository reservationRepository;
+    private final ObjectMapper objectMapper;
+
+    public ReservationExportService(ReservationRepository reservationRepository, ObjectMapper objectMapper) {
+        this.reservationRepository = reservationRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public static boolean isSupported(String format) {
+        return NDJSON.equals(format) || CSV.equals(format);
+    }
+
+    @Transactional(readOnly = true)
+    public void export(String format, OutputStream outputStream) throws IOException {
+        if (!isSupported(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (CSV.equals(format)) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try (Stream<ReservationSummary> rows = reservationRepository.streamAllSummaries()) {
+            rows.forEach(row -> {
+                try {
+                    if (CSV.equals(format)) {
+                        writeCsv(writer, row);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Writer writer, ReservationSummary row) throws IOException {
+        writer.write(String.valueOf(row.id()));
+        writer.write(',');
+        writer.write(csv(row.roomId()));
+        writer.write(',');
+        writer.write(csv(row.roomName()));
+        writer.write(',');
+        writer.write(csv(row.userId()));
+        writer.write(',');
+        writer.write(csv(row.userName()));
+        writer.write(',');
+        writer.write(csv(row.startTime()));
+        writer.write(',');
+        writer.write(csv(row.endTime()));
+        writer.write(',');
+        writer.write(csv(row.purpose()));
+        writer.write(',');
+        writer.write(csv(row.attendees()));
+        writer.write('\n');
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
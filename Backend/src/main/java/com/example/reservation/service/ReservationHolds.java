@@ -0,0 +1,190 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.ReservationSlot;
+import com.example.reservation.model.ReservationHold;
+import com.example.reservation.model.TimeSlot;
+import com.example.reservation.repository.ReservationHoldRepository;
+import com.example.reservation.util.HashedTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived holds on a room and time slot. A hold is a reservation_hold row written under the room row
+ * lock, so the booking conflict check of every node sees it and any node can confirm or release it. The
+ * node that placed it deletes it on a {@link HashedTimingWheel} after the TTL; rows left behind by a node
+ * that stopped no longer block anything once past their expiry and are purged periodically. When the
+ * database conflict check is disabled, this node is the sole writer and holds are mirrored in the
+ * {@link RoomOccupancyIndex} instead. Holds are placed and confirmed by ReservationService under the
+ * room's booking lock.
+ */
+@Component
+public class ReservationHolds {
+
+    private final ReservationHoldRepository repository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final Duration ttl;
+    private final int maxPerUser;
+    private final boolean mirrored;
+    private final HashedTimingWheel<Tracked> wheel;
+    // Holds placed by this node and not yet taken or expired
+    private final Map<String, HashedTimingWheel.Timeout<Tracked>> holds = new ConcurrentHashMap<>();
+    private final AtomicLong keys = new AtomicLong();
+    private final Counter expired;
+
+    public ReservationHolds(ReservationHoldRepository repository, RoomOccupancyIndex occupancyIndex,
+                            MeterRegistry meterRegistry,
+                            @Value("${reservation.holds.ttl:5m}") Duration ttl,
+                            @Value("${reservation.holds.max-per-user:3}") int maxPerUser,
+                            @Value("${reservation.booking.db-conflict-check:true}") boolean dbConflictCheck) {
+        this.repository = repository;
+        this.occupancyIndex = occupancyIndex;
+        this.ttl = ttl;
+        this.maxPerUser = maxPerUser;
+        this.mirrored = !dbConflictCheck;
+        // One-second ticks; a full rotation covers the default TTL
+        this.wheel = new HashedTimingWheel<>(1000, 512, System.currentTimeMillis());
+        Gauge.builder("reservation.holds.active", holds, Map::size)
+                .description("Holds placed by this node not yet confirmed, released or expired")
+                .register(meterRegistry);
+        this.expired = Counter.builder("reservation.holds.expired")
+                .description("Holds that reached their TTL")
+                .register(meterRegistry);
+    }
+
+    // Runs in the caller's transaction, which holds the room row lock and has checked the slot is free.
+    // Holds of one user on different rooms are not serialized, so racing requests may exceed the cap by a few.
+    public Hold add(Long userId, Long roomId, TimeSlot timeSlot, Integer attendees) {
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.countByUserIdAndExpiresAtAfter(userId, now) >= maxPerUser) {
+            throw new IllegalStateException("You cannot hold more than " + maxPerUser + " slots at a time");
+        }
+        Hold hold = new Hold(UUID.randomUUID().toString(), roomId, userId, timeSlot.getStartTime(),
+                timeSlot.getEndTime(), attendees, now.plus(ttl).truncatedTo(ChronoUnit.SECONDS));
+        repository.save(new ReservationHold(hold.id(), roomId, userId, hold.startTime(), hold.endTime(),
+                attendees, hold.expiresAt()));
+        return hold;
+    }
+
+    // Once the hold is committed: expires it from this node and mirrors it in the index if needed
+    public void track(Hold hold) {
+        Tracked tracked = new Tracked(hold, keys.incrementAndGet());
+        mirror(tracked);
+        long deadline = hold.expiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        holds.put(hold.id(), wheel.schedule(tracked, deadline));
+    }
+
+    // The user's live hold, placed by any node, or null if unknown, expired or someone else's
+    public Hold get(String holdId, Long userId) {
+        return repository.findByIdAndUserIdAndExpiresAtAfter(holdId, userId, LocalDateTime.now())
+                .map(Hold::of)
+                .orElse(null);
+    }
+
+    // Deletes the user's live hold, in the caller's transaction if there is one, and frees its slot in
+    // this node's index; returns null if there was none to take. After the transaction the caller either
+    // forgets the hold or, if it rolled back, restores it.
+    public Hold take(String holdId, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        Hold hold = repository.findByIdAndUserIdAndExpiresAtAfter(holdId, userId, now).map(Hold::of).orElse(null);
+        if (hold == null || repository.deleteLive(holdId, userId, now) == 0) {
+            return null;
+        }
+        HashedTimingWheel.Timeout<Tracked> timeout = holds.get(holdId);
+        if (timeout != null) {
+            unmirror(timeout.payload());
+        }
+        return hold;
+    }
+
+    // The take committed: this node no longer expires the hold
+    public void forget(String holdId) {
+        HashedTimingWheel.Timeout<Tracked> timeout = holds.remove(holdId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+            unmirror(timeout.payload());
+        }
+    }
+
+    // The take rolled back, so its row is back; it keeps its original expiry
+    public void restore(String holdId) {
+        HashedTimingWheel.Timeout<Tracked> timeout = holds.get(holdId);
+        if (timeout != null) {
+            mirror(timeout.payload());
+        }
+    }
+
+    // Whether a live hold placed by any node overlaps the slot; run under the room row lock
+    public boolean isHeld(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        return repository.isRoomHeld(roomId, startTime, endTime, LocalDateTime.now());
+    }
+
+    // Live holds of the room overlapping [from, to), placed by any node
+    public List<ReservationSlot> heldSlots(Long roomId, LocalDateTime from, LocalDateTime to) {
+        return repository.findLiveByRoomBetween(roomId, from, to, LocalDateTime.now()).stream()
+                .map(hold -> new ReservationSlot(null, roomId, hold.getStartTime(), hold.getEndTime()))
+                .toList();
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void expire() {
+        expire(System.currentTimeMillis());
+    }
+
+    void expire(long nowMillis) {
+        for (Tracked tracked : wheel.advance(nowMillis)) {
+            if (holds.remove(tracked.hold().id()) != null) {
+                unmirror(tracked);
+                // Not already taken by a confirm or release on another node
+                if (repository.deleteHold(tracked.hold().id()) > 0) {
+                    expired.increment();
+                }
+            }
+        }
+    }
+
+    // Holds of nodes that stopped before expiring them
+    @Scheduled(fixedDelayString = "${reservation.holds.cleanup-interval:3600000}")
+    public void purge() {
+        repository.deleteExpired(LocalDateTime.now());
+    }
+
+    private void mirror(Tracked tracked) {
+        if (mirrored) {
+            Hold hold = tracked.hold();
+            occupancyIndex.putHold(tracked.key(), hold.roomId(), hold.startTime(), hold.endTime());
+        }
+    }
+
+    private void unmirror(Tracked tracked) {
+        if (mirrored) {
+            occupancyIndex.removeHold(tracked.key());
+        }
+    }
+
+    public record Hold(String id, Long roomId, Long userId, LocalDateTime startTime, LocalDateTime endTime,
+                       Integer attendees, LocalDateTime expiresAt) {
+
+        static Hold of(ReservationHold row) {
+            return new Hold(row.getId(), row.getRoomId(), row.getUserId(), row.getStartTime(), row.getEndTime(),
+                    row.getAttendees(), row.getExpiresAt());
+        }
+    }
+
+    // A hold expired by this node, with the key of its index mirror
+    private record Tracked(Hold hold, long key) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.ReservationSummary;
+import com.example.reservation.exception.ServiceBusyException;
+import com.example.reservation.model.Reservation;
+import com.example.reservation.repository.ReservationRepository;
+import com.example.reservation.util.HashedTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * "Starts in 15 minutes" reminders. Only reservations whose reminder falls within the next horizon
+ * (24h by default) are held in memory, on a {@link HashedTimingWheel} with one-second ticks; the
+ * horizon is extended incrementally by loading just the newly covered window. ReservationService
+ * reschedules or cancels a reminder on every change, and the reminders due in a tick are checked
+ * against the database in one query before they are queued as notifications. Every node holds the
+ * same reminders, so each one is claimed with a conditional update before it is sent, and only the
+ * node that claims it sends it.
+ */
+@Component
+public class ReservationReminders {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationReminders.class);
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final ReservationRepository reservationRepository;
+    private final NotificationService notificationService;
+    private final boolean enabled;
+    private final Duration lead;
+    private final Duration horizon;
+    private final HashedTimingWheel<Reminder> wheel;
+    private final Map<Long, HashedTimingWheel.Timeout<Reminder>> scheduled = new ConcurrentHashMap<>();
+    private final Counter sent;
+    // Reminder times up to this instant are in the wheel; later ones are picked up by the next load
+    private volatile LocalDateTime loadedUntil;
+
+    public ReservationReminders(ReservationRepository reservationRepository, NotificationService notificationService,
+                                MeterRegistry meterRegistry,
+                                @Value("${reservation.reminders.enabled:true}") boolean enabled,
+                                @Value("${reservation.reminders.lead:15m}") Duration lead,
+                                @Value("${reservation.reminders.horizon:24h}") Duration horizon,
+                                @Value("${reservation.reminders.wheel-size:4096}") int wheelSize) {
+        this.reservationRepository = reservationRepository;
+        this.notificationService = notificationService;
+        this.enabled = enabled;
+        this.lead = lead;
+        this.horizon = horizon;
+        this.wheel = new HashedTimingWheel<>(1000, wheelSize, System.currentTimeMillis());
+        // Nothing is scheduled until the first load, which starts from now
+        this.loadedUntil = LocalDateTime.now().minus(lead);
+        Gauge.builder("reservation.reminders.scheduled", wheel, HashedTimingWheel::size)
+                .description("Reminders waiting in the timing wheel")
+                .register(meterRegistry);
+        this.sent = Counter.builder("reservation.reminders.sent")
+                .description("Reminders queued as notifications")
+                .register(meterRegistry);
+    }
+
+    public void schedule(Reservation reservation) {
+        if (reservation.getUser() == null || reservation.getTimeSlot() == null) {
+            cancel(reservation.getId());
+            return;
+        }
+        schedule(reservation.getId(), reservation.getUser().getId(), reservation.getTimeSlot().getStartTime());
+    }
+
+    public void schedule(Long reservationId, Long userId, LocalDateTime startTime) {
+        schedule(new Reminder(reservationId, userId, startTime), true);
+    }
+
+    public void cancel(Long reservationId) {
+        HashedTimingWheel.Timeout<Reminder> timeout = scheduled.remove(reservationId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    // Moves the horizon forward first, so bookings made while loading schedule themselves
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reservation.reminders.load-interval:300000}",
+            initialDelayString = "${reservation.reminders.load-interval:300000}")
+    public void extendHorizon() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime from = loadedUntil.plus(lead);
+        LocalDateTime until = LocalDateTime.now().plus(horizon);
+        if (!until.isAfter(loadedUntil)) {
+            return;
+        }
+        loadedUntil = until;
+        LocalDateTime to = until.plus(lead);
+        int loaded = 0;
+        LocalDateTime afterTime = null;
+        Long afterId = null;
+        List<ReservationSummary> page;
+        do {
+            page = reservationRepository.findPage(null, null, from, to, afterTime, afterId, Limit.of(LOAD_PAGE_SIZE));
+            for (ReservationSummary reservation : page) {
+                if (reservation.userId() != null) {
+                    schedule(new Reminder(reservation.id(), reservation.userId(), reservation.startTime()), false);
+                    loaded++;
+                }
+            }
+            if (!page.isEmpty()) {
+                ReservationSummary last = page.get(page.size() - 1);
+                afterTime = last.startTime();
+                afterId = last.id();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        logger.debug("Loaded {} reminders for reservations starting before {}", loaded, to);
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        List<Reminder> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        // Drop reminders of reservations deleted or moved since they were scheduled
+        Map<Long, ReservationSummary> current = reservationRepository.findSummariesByIdIn(
+                        due.stream().map(Reminder::reservationId).toList()).stream()
+                .collect(Collectors.toMap(ReservationSummary::id, Function.identity()));
+        for (Reminder reminder : due) {
+            // Unless the reservation was rescheduled meanwhile
+            scheduled.computeIfPresent(reminder.reservationId(),
+                    (id, timeout) -> timeout.payload() == reminder ? null : timeout);
+            ReservationSummary reservation = current.get(reminder.reservationId());
+            if (reservation == null || !reminder.startTime().equals(reservation.startTime())
+                    || !reminder.userId().equals(reservation.userId())) {
+                continue;
+            }
+            if (reservationRepository.claimReminder(reminder.reservationId(), reminder.startTime()) == 0) {
+                // Sent by another node, or moved meanwhile
+                continue;
+            }
+            try {
+                notificationService.sendNotification(reminder.userId(), message(reservation));
+                sent.increment();
+            } catch (ServiceBusyException e) {
+                // Queue full: try again in a few seconds, still well ahead of the start
+                reservationRepository.releaseReminder(reminder.reservationId(), reminder.startTime());
+                schedule(reminder, true, System.currentTimeMillis() + e.getRetryAfterSeconds() * 1000L);
+            }
+        }
+    }
+
+    private void schedule(Reminder reminder, boolean replace) {
+        LocalDateTime remindAt = reminder.startTime().minus(lead);
+        if (!reminder.startTime().isAfter(LocalDateTime.now()) || remindAt.isAfter(loadedUntil)) {
+            cancel(reminder.reservationId());
+            return;
+        }
+        if (!replace && scheduled.containsKey(reminder.reservationId())) {
+            return;
+        }
+        schedule(reminder, replace, remindAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private void schedule(Reminder reminder, boolean replace, long deadlineMillis) {
+        scheduled.compute(reminder.reservationId(), (id, existing) -> {
+            if (existing != null) {
+                if (!replace) {
+                    return existing;
+                }
+                wheel.cancel(existing);
+            }
+            return wheel.schedule(reminder, deadlineMillis);
+        });
+    }
+
+    private String message(ReservationSummary reservation) {
+        String room = reservation.roomName() != null ? "room " + reservation.roomName() : "your room";
+        long minutes = Math.max(1, Duration.between(LocalDateTime.now(), reservation.startTime()).toMinutes());
+        return "Your reservation in " + room + " starts in " + minutes + " minutes, at "
+                + reservation.startTime().format(TIME) + ".";
+    }
+
+    private record Reminder(Long reservationId, Long userId, LocalDateTime startTime) {
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.reservation.service;
 
+import com.example.reservation.config.TimeSlotBackfill;
+import com.example.reservation.dto.CursorPage;
+import com.example.reservation.dto.KeysetCursor;
+import com.example.reservation.dto.ReservationSummary;
 import com.example.reservation.exception.ResourceNotFoundException;
 import com.example.reservation.model.Reservation;
 import com.example.reservation.model.Room;
@@ -8,43 +12,84 @@ import com.example.reservation.model.User;
 import com.example.reservation.repository.ReservationRepository;
 import com.example.reservation.repository.RoomRepository;
 import com.example.reservation.repository.UserRepository;
-import com.example.reservation.repository.TimeSlotRepository;
+import com.example.reservation.security.CurrentUser;
+import com.example.reservation.util.StripedLocks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.example.reservation.model.enums.Role;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 
 @Service
 public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final UserRepository userRepository;
     private final RoomRepository roomRepository;
-    private final TimeSlotRepository timeSlotRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final ReservationReminders reminders;
+    private final ReservationHolds holds;
+    private final CurrentUser currentUser;
+    private final TimeSlotBackfill timeSlotBackfill;
+    private final boolean dbConflictCheck;
+    private final TransactionTemplate transactionTemplate;
+    private static final int ROOM_LOCK_STRIPES = 256;
+    private static final int MAX_PAGE_SIZE = 500;
+    private final StripedLocks roomLocks = new StripedLocks(ROOM_LOCK_STRIPES);
     private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
 
     public ReservationService(ReservationRepository reservationRepository, UserRepository userRepository,
-                              RoomRepository roomRepository, TimeSlotRepository timeSlotRepository) {
+                              RoomRepository roomRepository,
+                              RoomOccupancyIndex occupancyIndex, ReservationReminders reminders,
+                              ReservationHolds holds, CurrentUser currentUser, TimeSlotBackfill timeSlotBackfill,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${reservation.booking.db-conflict-check:true}") boolean dbConflictCheck) {
         this.reservationRepository = reservationRepository;
         this.userRepository = userRepository;
         this.roomRepository = roomRepository;
-        this.timeSlotRepository = timeSlotRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.reminders = reminders;
+        this.holds = holds;
+        this.currentUser = currentUser;
+        this.timeSlotBackfill = timeSlotBackfill;
+        this.dbConflictCheck = dbConflictCheck;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public Reservation create(Reservation reservation) {
-        return reservationRepository.save(reservation);
+        Reservation saved = reservationRepository.save(reservation);
+        occupancyIndex.put(saved);
+        reminders.schedule(saved);
+        return saved;
     }
 
-    public List<Reservation> getAll() {
-        return reservationRepository.findAll();
+    public CursorPage<ReservationSummary> getPage(Long roomId, Long userId, LocalDateTime from, LocalDateTime to,
+                                                  String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        KeysetCursor cursor = after != null ? KeysetCursor.decode(after) : null;
+        // One extra row tells whether there is a next page
+        List<ReservationSummary> rows = reservationRepository.findPage(roomId, userId, from, to,
+                cursor != null ? cursor.time() : null, cursor != null ? cursor.id() : null, Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ReservationSummary> items = rows.subList(0, limit);
+        ReservationSummary last = items.get(limit - 1);
+        return new CursorPage<>(items, new KeysetCursor(last.startTime(), last.id()).encode());
     }
 
     public Reservation getById(Long id) {
-        return reservationRepository.findById(id)
+        return reservationRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
     }
 
@@ -55,11 +100,16 @@ public class ReservationService {
         existing.setTimeSlot(updated.getTimeSlot());
         existing.setPurpose(updated.getPurpose());
         existing.setAttendees(updated.getAttendees());
-        return reservationRepository.save(existing);
+        Reservation saved = reservationRepository.save(existing);
+        occupancyIndex.put(saved);
+        reminders.schedule(saved);
+        return saved;
     }
 
     public void delete(Long id) {
         reservationRepository.deleteById(id);
+        occupancyIndex.remove(id);
+        reminders.cancel(id);
     }
 
     public Reservation reserveRoom(TimeSlot timeSlot, Long roomId, String purpose, Integer attendees) {
@@ -68,23 +118,10 @@ public class ReservationService {
 
     public Reservation reserveRoomForUser(TimeSlot timeSlot, Long roomId, String purpose, Integer attendees, Long userId) {
         // Validate the time slot
-        if (timeSlot.getStartTime().isAfter(timeSlot.getEndTime())) {
+        if (!timeSlot.getStartTime().isBefore(timeSlot.getEndTime())) {
             throw new IllegalArgumentException("Start time must be before end time");
         }
 
-        // Check if the room is already reserved at the given time
-        boolean isReserved = reservationRepository.isRoomReserved(
-                roomId, timeSlot.getStartTime(), timeSlot.getEndTime());
-        if (isReserved) {
-            throw new IllegalStateException("The room is already reserved for the specified time slot");
-        }
-
-        // Create a new reservation
-        Reservation reservation = new Reservation();
-        reservation.setTimeSlot(timeSlot);
-        reservation.setPurpose(purpose);
-        reservation.setAttendees(attendees);
-
         // Get the user
         User user;
         if (userId != null) {
@@ -92,16 +129,8 @@ public class ReservationService {
             user = userRepository.findById(userId)
                     .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         } else {
-            // Otherwise, use the authenticated user
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                throw new IllegalStateException("User not authenticated");
-            }
-            String username = authentication.getName();
-            logger.info("Authenticated user: {}", username);
-            
-            user = userRepository.findByEmail(username)
-                    .orElseThrow(() -> new IllegalStateException("User not found"));
+            // Otherwise, use the authenticated user, already loaded by the JWT filter
+            user = currentUser.get();
         }
         logger.info("Using user with ID: {}", user.getId());
 
@@ -109,9 +138,104 @@ public class ReservationService {
         if (!user.getRole().equals(Role.USER) && !user.getRole().equals(Role.ADMIN)) {
             throw new IllegalStateException("Only users with role USER or ADMIN can make reservations");
         }
+        return book(user, roomId, timeSlot, purpose, attendees);
+    }
 
-        // Retrieve the room by ID
-        Room room = roomRepository.findById(roomId)
+    // Keeps the slot for the current user until the hold expires, is confirmed or is released.
+    // Checked like a booking, so a confirmed hold cannot collide with anything.
+    public ReservationHolds.Hold placeHold(TimeSlot timeSlot, Long roomId, Integer attendees) {
+        if (!timeSlot.getStartTime().isBefore(timeSlot.getEndTime())) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
+        int headcount = attendees != null ? attendees : 1;
+        User user = currentUser.get();
+        Lock lock = roomLocks.get(roomId);
+        lock.lock();
+        try {
+            // Written under the room row lock like a booking, so bookings on every node see it
+            ReservationHolds.Hold hold = transactionTemplate.execute(status -> {
+                Room room = roomRepository.findByIdForUpdate(roomId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + roomId));
+                if (headcount > room.getCapacity()) {
+                    throw new IllegalArgumentException("Number of attendees exceeds room capacity");
+                }
+                if (isRoomReserved(roomId, timeSlot)) {
+                    throw new IllegalStateException("The room is already reserved or held for the specified time slot");
+                }
+                return holds.add(user.getId(), roomId, timeSlot, headcount);
+            });
+            holds.track(hold);
+            return hold;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Turns the current user's hold into a reservation; purpose and attendees default to the hold's.
+    // The hold may have been placed on another node.
+    public Reservation confirmHold(String holdId, String purpose, Integer attendees) {
+        User user = currentUser.get();
+        ReservationHolds.Hold hold = holds.get(holdId, user.getId());
+        if (hold == null) {
+            throw new ResourceNotFoundException("Hold not found or expired: " + holdId);
+        }
+        TimeSlot timeSlot = new TimeSlot(hold.startTime(), hold.endTime());
+        Lock lock = roomLocks.get(hold.roomId());
+        lock.lock();
+        try {
+            Reservation saved;
+            try {
+                // Taken and booked in one transaction under the room row lock: no other booking can take the
+                // slot in between, and a failed booking rolls back to the hold
+                saved = transactionTemplate.execute(status -> {
+                    if (holds.take(holdId, user.getId()) == null) {
+                        throw new ResourceNotFoundException("Hold not found or expired: " + holdId);
+                    }
+                    return insert(user, hold.roomId(), timeSlot, purpose,
+                            attendees != null ? attendees : hold.attendees());
+                });
+            } catch (RuntimeException e) {
+                // The user keeps the slot to retry, e.g. with fewer attendees
+                holds.restore(holdId);
+                throw e;
+            }
+            holds.forget(holdId);
+            occupancyIndex.put(saved);
+            reminders.schedule(saved);
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void releaseHold(String holdId) {
+        if (holds.take(holdId, currentUser.get().getId()) == null) {
+            throw new ResourceNotFoundException("Hold not found or expired: " + holdId);
+        }
+        holds.forget(holdId);
+    }
+
+    private Reservation book(User user, Long roomId, TimeSlot timeSlot, String purpose, Integer attendees) {
+        // Bookings of one room are serialized: by a striped lock within this JVM and by the
+        // room row lock across nodes. Bookings of different rooms run in parallel.
+        Lock lock = roomLocks.get(roomId);
+        lock.lock();
+        try {
+            Reservation saved = transactionTemplate.execute(
+                    status -> insert(user, roomId, timeSlot, purpose, attendees));
+            // Only committed bookings reach the index, before the next booking of the room may run
+            occupancyIndex.put(saved);
+            reminders.schedule(saved);
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs in the booking's transaction, with the room's booking lock held
+    private Reservation insert(User user, Long roomId, TimeSlot timeSlot, String purpose, Integer attendees) {
+        // Retrieve and lock the room by ID
+        Room room = roomRepository.findByIdForUpdate(roomId)
                 .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + roomId));
 
         // Check if the number of attendees exceeds the room capacity
@@ -119,16 +243,50 @@ public class ReservationService {
             throw new IllegalArgumentException("Number of attendees exceeds room capacity");
         }
 
-        // Associate the user and room with the reservation
+        // Check if the room is already reserved or held at the given time; the room row lock makes
+        // the queries see every booking and hold committed by other nodes
+        if (isRoomReserved(roomId, timeSlot)) {
+            throw new IllegalStateException("The room is already reserved for the specified time slot");
+        }
+
+        // Create a new reservation
+        Reservation reservation = new Reservation();
+        reservation.setPurpose(purpose);
+        reservation.setAttendees(attendees);
         reservation.setUser(user);
         reservation.setRoom(room);
-
-        // Save the TimeSlot
-        timeSlot.setRoom(room); // Associate the TimeSlot with the room
-        timeSlot = timeSlotRepository.save(timeSlot);
         reservation.setTimeSlot(timeSlot);
 
         // Save the reservation
         return reservationRepository.save(reservation);
     }
-}
\ No newline at end of file
+
+    // Runs the action while holding the booking locks of all given rooms, e.g. for bulk imports
+    public <T> T withRoomLocks(Collection<Long> roomIds, Supplier<T> action) {
+        List<Lock> locks = roomLocks.getAll(roomIds);
+        int locked = 0;
+        try {
+            for (Lock lock : locks) {
+                lock.lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    // The index answers most conflicts without a query. It only sees bookings made by this node, so the
+    // overlap queries for reservations and holds (served by their room/time indexes) run as well unless
+    // disabled by config, and always while the index is loading; holds are then mirrored in the index.
+    // Legacy time_slot rows are queried while they are being backfilled.
+    private boolean isRoomReserved(Long roomId, TimeSlot timeSlot) {
+        return occupancyIndex.overlaps(roomId, timeSlot.getStartTime(), timeSlot.getEndTime())
+                || (dbConflictCheck || !occupancyIndex.isLoaded())
+                && (reservationRepository.isRoomReserved(roomId, timeSlot.getStartTime(), timeSlot.getEndTime())
+                || holds.isHeld(roomId, timeSlot.getStartTime(), timeSlot.getEndTime()))
+                || timeSlotBackfill.overlapsPending(roomId, timeSlot.getStartTime(), timeSlot.getEndTime());
+    }
+}
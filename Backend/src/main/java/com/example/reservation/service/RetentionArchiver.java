@@ -0,0 +1,131 @@
+package com.example.reservation.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Moves seen notifications and long-past reservations into notification_archive and
+ * reservation_archive. Rows are picked in primary key order, a small batch at a time, and each batch
+ * is copied and deleted in its own short transaction followed by a pause, so the live tables are
+ * never locked for long. Archived rows stay readable through the history endpoints.
+ */
+@Component
+public class RetentionArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionArchiver.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final boolean enabled;
+    private final Duration notificationRetention;
+    private final Duration reservationRetention;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    public RetentionArchiver(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                             PlatformTransactionManager transactionManager, RoomOccupancyIndex occupancyIndex,
+                             @Value("${reservation.archive.enabled:true}") boolean enabled,
+                             @Value("${reservation.archive.notification-retention:30d}") Duration notificationRetention,
+                             @Value("${reservation.archive.reservation-retention:90d}") Duration reservationRetention,
+                             @Value("${reservation.archive.batch-size:500}") int batchSize,
+                             @Value("${reservation.archive.pause:200ms}") Duration pause) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.occupancyIndex = occupancyIndex;
+        this.enabled = enabled;
+        this.notificationRetention = notificationRetention;
+        this.reservationRetention = reservationRetention;
+        this.batchSize = batchSize;
+        this.pauseMillis = pause.toMillis();
+    }
+
+    @Scheduled(cron = "${reservation.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int notifications = archiveNotifications(now.minus(notificationRetention), now);
+            int reservations = archiveReservations(now.minus(reservationRetention), now);
+            logger.info("Archived {} notifications and {} reservations", notifications, reservations);
+        } catch (DataAccessException e) {
+            // e.g. another node archiving the same rows; the next run picks up where this one stopped
+            logger.warn("Archiving stopped: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int archiveNotifications(LocalDateTime cutoff, LocalDateTime now) throws InterruptedException {
+        return inBatches(
+                "SELECT id FROM notification WHERE seen = TRUE AND created_at < ? AND id > ? ORDER BY id LIMIT ?",
+                cutoff,
+                "INSERT INTO notification_archive (id, user_id, message, seen, created_at, archived_at) " +
+                "SELECT id, user_id, message, seen, created_at, :now FROM notification " +
+                "WHERE id IN (:ids) AND seen = TRUE AND created_at < :cutoff",
+                "DELETE FROM notification WHERE id IN (:ids) AND seen = TRUE AND created_at < :cutoff",
+                "SELECT id FROM notification_archive WHERE id IN (:ids)",
+                now, ids -> { });
+    }
+
+    // The occupancy index drops archived reservations, which only ever matter for past dates
+    public int archiveReservations(LocalDateTime cutoff, LocalDateTime now) throws InterruptedException {
+        return inBatches(
+                "SELECT id FROM reservation WHERE end_time < ? AND id > ? ORDER BY id LIMIT ?",
+                cutoff,
+                "INSERT INTO reservation_archive (id, room_id, user_id, start_time, end_time, purpose, attendees, archived_at) " +
+                "SELECT id, room_id, user_id, start_time, end_time, purpose, attendees, :now FROM reservation " +
+                "WHERE id IN (:ids) AND end_time < :cutoff",
+                "DELETE FROM reservation WHERE id IN (:ids) AND end_time < :cutoff",
+                "SELECT id FROM reservation_archive WHERE id IN (:ids)",
+                now, ids -> ids.forEach(occupancyIndex::remove));
+    }
+
+    // The INSERT and DELETE repeat the SELECT's predicates: a row changed in between (marked unread again,
+    // rescheduled) is left in place. archivedSql tells which of the batch's ids were actually moved.
+    private int inBatches(String selectSql, LocalDateTime cutoff, String insertSql, String deleteSql,
+                          String archivedSql, LocalDateTime now, Consumer<List<Long>> afterCommit)
+            throws InterruptedException {
+        int total = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(selectSql, Long.class, cutoff, afterId, batchSize);
+            if (ids.isEmpty()) {
+                return total;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                    .addValue("cutoff", cutoff)
+                    .addValue("now", now);
+            List<Long> archived = transactionTemplate.execute(status -> {
+                namedJdbcTemplate.update(insertSql, params);
+                namedJdbcTemplate.update(deleteSql, params);
+                return namedJdbcTemplate.queryForList(archivedSql, params, Long.class);
+            });
+            afterCommit.accept(archived);
+            total += archived.size();
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) {
+                return total;
+            }
+            Thread.sleep(pauseMillis);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.ReservationSlot;
+import com.example.reservation.model.Reservation;
+import com.example.reservation.repository.ReservationRepository;
+import com.example.reservation.util.StripedLocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * In-memory per-room interval index of reservations, used to answer overlap checks
+ * without a database round trip. Intervals are half-open [start, end) in epoch seconds.
+ */
+@Component
+public class RoomOccupancyIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomOccupancyIndex.class);
+
+    private static final int RESERVATION_LOCK_STRIPES = 64;
+
+    private static final Comparator<Slot> BY_START = Comparator
+            .comparingLong(Slot::start)
+            .thenComparingLong(Slot::id);
+
+    private final ReservationRepository reservationRepository;
+    private final Map<Long, RoomSlots> rooms = new ConcurrentHashMap<>();
+    private final Map<Long, Long> roomByReservation = new ConcurrentHashMap<>();
+    // Serializes changes to one reservation, so load() cannot interleave with a live put or remove
+    private final StripedLocks reservationLocks = new StripedLocks(RESERVATION_LOCK_STRIPES);
+    // Non-null only while load() runs: what was removed meanwhile, which the rows it read must not bring back
+    private volatile Tombstones tombstones;
+    private volatile boolean loaded;
+
+    public RoomOccupancyIndex(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+    }
+
+    // Load every reservation once the application is up; bookings made meanwhile are merged, not lost,
+    // and reservations or rooms deleted meanwhile are not brought back
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long started = System.nanoTime();
+        Tombstones removed = new Tombstones(ConcurrentHashMap.newKeySet(), ConcurrentHashMap.newKeySet());
+        tombstones = removed;
+        List<ReservationSlot> slots;
+        try {
+            slots = reservationRepository.findAllSlots();
+            for (ReservationSlot slot : slots) {
+                Lock lock = reservationLocks.get(slot.reservationId());
+                lock.lock();
+                try {
+                    if (!roomByReservation.containsKey(slot.reservationId())
+                            && !removed.reservationIds().contains(slot.reservationId())
+                            && !removed.roomIds().contains(slot.roomId())) {
+                        add(slot.reservationId(), slot.roomId(), slot.startTime(), slot.endTime());
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            tombstones = null;
+        }
+        loaded = true;
+        logger.info("Room occupancy index loaded with {} reservations in {} ms",
+                slots.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void put(Reservation reservation) {
+        if (reservation.getRoom() == null || reservation.getTimeSlot() == null) {
+            remove(reservation.getId());
+            return;
+        }
+        put(reservation.getId(), reservation.getRoom().getId(),
+                reservation.getTimeSlot().getStartTime(), reservation.getTimeSlot().getEndTime());
+    }
+
+    public void put(Long reservationId, Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (reservationId == null || roomId == null || startTime == null || endTime == null) {
+            return;
+        }
+        Lock lock = reservationLocks.get(reservationId);
+        lock.lock();
+        try {
+            add(reservationId, roomId, startTime, endTime);
+            Tombstones removed = tombstones;
+            if (removed != null) {
+                removed.reservationIds().remove(reservationId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long reservationId) {
+        if (reservationId == null) {
+            return;
+        }
+        Lock lock = reservationLocks.get(reservationId);
+        lock.lock();
+        try {
+            Tombstones removed = tombstones;
+            if (removed != null) {
+                removed.reservationIds().add(reservationId);
+            }
+            removeSlot(reservationId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Callers hold the reservation's stripe
+    private void add(Long reservationId, Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        removeSlot(reservationId);
+        Slot slot = new Slot(toEpoch(startTime), toEpoch(endTime), reservationId);
+        rooms.computeIfAbsent(roomId, id -> new RoomSlots()).add(slot);
+        roomByReservation.put(reservationId, roomId);
+    }
+
+    private void removeSlot(Long reservationId) {
+        Long roomId = roomByReservation.remove(reservationId);
+        if (roomId != null) {
+            RoomSlots roomSlots = rooms.get(roomId);
+            if (roomSlots != null) {
+                roomSlots.remove(reservationId);
+            }
+        }
+    }
+
+    // Tentative holds share the room slots under negative ids, so they block overlapping bookings
+    public void putHold(long holdKey, Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        put(-holdKey, roomId, startTime, endTime);
+    }
+
+    public void removeHold(long holdKey) {
+        remove(-holdKey);
+    }
+
+    public void removeRoom(Long roomId) {
+        Tombstones removed = tombstones;
+        if (removed != null) {
+            removed.roomIds().add(roomId);
+        }
+        RoomSlots roomSlots = rooms.remove(roomId);
+        if (roomSlots != null) {
+            roomSlots.reservationIds().forEach(this::remove);
+        }
+    }
+
+    public boolean overlaps(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        RoomSlots roomSlots = rooms.get(roomId);
+        return roomSlots != null && roomSlots.overlaps(toEpoch(startTime), toEpoch(endTime));
+    }
+
+    // Reservations of the room overlapping [from, to), ordered by start time
+    public List<ReservationSlot> busySlots(Long roomId, LocalDateTime from, LocalDateTime to) {
+        RoomSlots roomSlots = rooms.get(roomId);
+        if (roomSlots == null) {
+            return List.of();
+        }
+        return roomSlots.overlapping(toEpoch(from), toEpoch(to)).stream()
+                .map(slot -> new ReservationSlot(slot.id(), roomId, fromEpoch(slot.start()), fromEpoch(slot.end())))
+                .toList();
+    }
+
+    static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static LocalDateTime fromEpoch(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    record Slot(long start, long end, long id) {
+    }
+
+    private record Tombstones(Set<Long> reservationIds, Set<Long> roomIds) {
+    }
+
+    private static final class RoomSlots {
+        private final NavigableSet<Slot> byStart = new TreeSet<>(BY_START);
+        private final Map<Long, Slot> byId = new HashMap<>();
+        // Longest interval ever stored; bounds how far back an overlapping slot can start
+        private long maxDuration;
+
+        synchronized void add(Slot slot) {
+            byStart.add(slot);
+            byId.put(slot.id(), slot);
+            maxDuration = Math.max(maxDuration, slot.end() - slot.start());
+        }
+
+        synchronized void remove(long id) {
+            Slot slot = byId.remove(id);
+            if (slot != null) {
+                byStart.remove(slot);
+            }
+        }
+
+        synchronized List<Long> reservationIds() {
+            return List.copyOf(byId.keySet());
+        }
+
+        synchronized boolean overlaps(long start, long end) {
+            for (Slot slot : candidates(start, end)) {
+                if (slot.end() > start) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized List<Slot> overlapping(long start, long end) {
+            List<Slot> result = new ArrayList<>();
+            for (Slot slot : candidates(start, end)) {
+                if (slot.end() > start) {
+                    result.add(slot);
+                }
+            }
+            return result;
+        }
+
+        // Slots starting in [start - maxDuration, end): the only ones that can overlap [start, end)
+        private NavigableSet<Slot> candidates(long start, long end) {
+            Slot from = new Slot(start - maxDuration, 0, Long.MIN_VALUE);
+            Slot to = new Slot(end, 0, Long.MIN_VALUE);
+            return byStart.subSet(from, true, to, false);
+        }
+    }
+}
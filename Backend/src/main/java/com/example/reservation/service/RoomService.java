@@ -1,18 +1,29 @@
 package com.example.reservation.service;
 
+import com.example.reservation.dto.FreeSlot;
+import com.example.reservation.dto.ReservationSlot;
 import com.example.reservation.exception.ResourceNotFoundException;
 import com.example.reservation.model.Room;
+import com.example.reservation.repository.ReservationRepository;
 import com.example.reservation.repository.RoomRepository;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class RoomService {
     private final RoomRepository roomRepository;
+    private final ReservationRepository reservationRepository;
+    private final RoomOccupancyIndex occupancyIndex;
 
-    public RoomService(RoomRepository roomRepository) {
+    public RoomService(RoomRepository roomRepository, ReservationRepository reservationRepository,
+                       RoomOccupancyIndex occupancyIndex) {
         this.roomRepository = roomRepository;
+        this.reservationRepository = reservationRepository;
+        this.occupancyIndex = occupancyIndex;
     }
 
     public Room create(Room room) {
@@ -23,6 +34,53 @@ public class RoomService {
         return roomRepository.findAll();
     }
 
+    // Rooms with enough seats and no reservation in [start, end), smallest rooms first
+    public List<Room> findAvailable(LocalDateTime start, LocalDateTime end, int minCapacity) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
+        if (!occupancyIndex.isLoaded()) {
+            return roomRepository.findAvailable(minCapacity, start, end);
+        }
+        return roomRepository.findByCapacityGreaterThanEqualOrderByCapacityAsc(minCapacity).stream()
+                .filter(room -> !occupancyIndex.overlaps(room.getId(), start, end))
+                .toList();
+    }
+
+    // Gaps of at least minDuration between the room's reservations within [from, to)
+    public List<FreeSlot> findFreeSlots(Long roomId, LocalDateTime from, LocalDateTime to, Duration minDuration) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
+        getById(roomId);
+        List<ReservationSlot> busy = occupancyIndex.isLoaded()
+                ? occupancyIndex.busySlots(roomId, from, to)
+                : reservationRepository.findSlotsByRoomBetween(roomId, from, to);
+
+        // Single merge pass over the busy intervals, sorted by start time
+        List<FreeSlot> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (ReservationSlot slot : busy) {
+            if (slot.startTime().isAfter(cursor)) {
+                addFreeSlot(free, cursor, slot.startTime().isBefore(to) ? slot.startTime() : to, minDuration);
+            }
+            if (slot.endTime().isAfter(cursor)) {
+                cursor = slot.endTime();
+            }
+            if (!cursor.isBefore(to)) {
+                return free;
+            }
+        }
+        addFreeSlot(free, cursor, to, minDuration);
+        return free;
+    }
+
+    private static void addFreeSlot(List<FreeSlot> free, LocalDateTime start, LocalDateTime end, Duration minDuration) {
+        if (start.isBefore(end) && Duration.between(start, end).compareTo(minDuration) >= 0) {
+            free.add(new FreeSlot(start, end));
+        }
+    }
+
     public Room getById(Long id) {
         return roomRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + id));
@@ -38,5 +96,7 @@ public class RoomService {
 
     public void delete(Long id) {
         roomRepository.deleteById(id);
+        // Reservations of the room are removed by cascade
+        occupancyIndex.removeRoom(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.example.reservation.service;
+
+import com.example.reservation.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Unread notification count per user, loaded from the database on first use and then kept up to date
+ * by the notification writes. The count is queried outside the map and installed only if no write for
+ * the user (or one sharing its version stripe) happened meanwhile; entries are reloaded after a while.
+ */
+@Component
+public class UnreadNotificationCounts {
+
+    private static final long RELOAD_AFTER_MS = 10 * 60 * 1000L;
+    private static final int EVICTION_SAMPLE = 8;
+    private static final int VERSION_STRIPES = 1024;
+
+    private final NotificationRepository notificationRepository;
+    private final int maxUsers;
+    private final Map<Long, Entry> counts = new ConcurrentHashMap<>();
+    // Bumped by every write, cached user or not, so a load racing with one is not installed
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public UnreadNotificationCounts(NotificationRepository notificationRepository,
+                                    @Value("${reservation.notifications.unread-cache-size:100000}") int maxUsers) {
+        this.notificationRepository = notificationRepository;
+        this.maxUsers = maxUsers;
+    }
+
+    public long get(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = counts.get(userId);
+        if (entry != null && now - entry.loadedAt <= RELOAD_AFTER_MS) {
+            return entry.count;
+        }
+        int stripe = stripe(userId);
+        long version = versions.get(stripe);
+        long loaded = notificationRepository.countByUserIdAndSeenFalse(userId);
+        if (entry == null && counts.size() >= maxUsers) {
+            evictOne();
+        }
+        // The query runs outside the map, so other users' counters sharing a bin never wait on it
+        Entry installed = counts.compute(userId, (id, current) -> {
+            if (current != null && now - current.loadedAt <= RELOAD_AFTER_MS) {
+                return current;
+            }
+            return versions.get(stripe) == version ? new Entry(loaded, now) : current;
+        });
+        // Left uncached when a write raced with the query; the next call loads again
+        return installed != null && now - installed.loadedAt <= RELOAD_AFTER_MS ? installed.count : loaded;
+    }
+
+    // Users not cached yet are skipped: their first get() counts the new rows
+    public void add(Long userId, long delta) {
+        versions.incrementAndGet(stripe(userId));
+        counts.computeIfPresent(userId, (id, entry) -> {
+            entry.count = Math.max(0, entry.count + delta);
+            return entry;
+        });
+    }
+
+    public void remove(Long userId) {
+        versions.incrementAndGet(stripe(userId));
+        counts.remove(userId);
+    }
+
+    private static int stripe(Long userId) {
+        int h = userId.hashCode();
+        return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    // Drops the least recently loaded of a few entries, rather than every user's count at once
+    private void evictOne() {
+        Map.Entry<Long, Entry> eldest = null;
+        int sampled = 0;
+        for (Map.Entry<Long, Entry> candidate : counts.entrySet()) {
+            if (eldest == null || candidate.getValue().loadedAt < eldest.getValue().loadedAt) {
+                eldest = candidate;
+            }
+            if (++sampled == EVICTION_SAMPLE) {
+                break;
+            }
+        }
+        if (eldest != null) {
+            counts.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private static final class Entry {
+        // Only changed inside ConcurrentHashMap compute functions
+        private volatile long count;
+        private final long loadedAt;
+
+        private Entry(long count, long loadedAt) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
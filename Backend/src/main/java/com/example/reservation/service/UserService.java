@@ -1,19 +1,30 @@
 package com.example.reservation.service;
 
 import com.example.reservation.exception.ResourceNotFoundException;
+import com.example.reservation.model.Reservation;
 import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
 import com.example.reservation.repository.UserRepository;
+import com.example.reservation.security.UserTokenRevocations;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final UserTokenRevocations tokenRevocations;
+    private final UnreadNotificationCounts unreadCounts;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, RoomOccupancyIndex occupancyIndex,
+                       UserTokenRevocations tokenRevocations, UnreadNotificationCounts unreadCounts) {
         this.userRepository = userRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.tokenRevocations = tokenRevocations;
+        this.unreadCounts = unreadCounts;
     }
 
     public List<User> getAll() {
@@ -35,6 +46,8 @@ public class UserService {
         }
         
         User user = getById(id);
+        String previousEmail = user.getEmail();
+        Role previousRole = user.getRole();
         
         if (userDetails.getEmail() != null) {
             user.setEmail(userDetails.getEmail());
@@ -48,15 +61,28 @@ public class UserService {
             user.setRole(userDetails.getRole());
         }
         
+        User saved;
         try {
-            return userRepository.save(user);
+            saved = userRepository.save(user);
         } catch (Exception e) {
             throw new RuntimeException("Failed to update user: " + e.getMessage());
         }
+        // Tokens still carry the old email or role in their claims
+        if (!Objects.equals(previousEmail, saved.getEmail()) || previousRole != saved.getRole()) {
+            tokenRevocations.revoke(id);
+        }
+        return saved;
     }
 
     public void delete(Long id) {
         User user = getById(id);
+        List<Reservation> reservations = user.getReservations();
         userRepository.delete(user);
+        tokenRevocations.revoke(id);
+        unreadCounts.remove(id);
+        // Reservations of the user are removed by cascade
+        if (reservations != null) {
+            reservations.forEach(reservation -> occupancyIndex.remove(reservation.getId()));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.reservation.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: a ring of wheelSize buckets, one per tick, each a doubly linked list of
+ * timeouts. Scheduling and cancelling are O(1) whatever the number of pending timeouts; a deadline
+ * more than one rotation away waits in its bucket with a round count. {@link #advance} walks the
+ * buckets of the ticks that have passed and returns the timeouts that expired. Ticks are aligned on
+ * the start time and deadlines are rounded up to the next tick, so a timeout never fires early.
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final Timeout<T>[] buckets;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Tick must be positive and wheel size a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new Timeout[wheelSize];
+    }
+
+    // Deadlines already passed expire with the next tick
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis), currentTick);
+        Timeout<T> timeout = new Timeout<>(payload, deadlineMillis);
+        timeout.bucket = (int) (tick & mask);
+        timeout.rounds = (tick - currentTick) / buckets.length;
+        Timeout<T> head = buckets[timeout.bucket];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[timeout.bucket] = timeout;
+        size++;
+        return timeout;
+    }
+
+    // Returns false if the timeout already expired or was cancelled
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket < 0) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    // Processes every tick up to nowMillis and returns the expired payloads in tick order
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long lastTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick <= lastTick) {
+            Timeout<T> timeout = buckets[(int) (currentTick & mask)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.rounds <= 0) {
+                    unlink(timeout);
+                    expired.add(timeout.payload);
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineMillis;
+        private int bucket;
+        private long rounds;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineMillis) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+}
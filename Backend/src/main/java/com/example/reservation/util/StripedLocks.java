@@ -0,0 +1,45 @@
+package com.example.reservation.util;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by key hash, so work on one key is serialized while
+ * different keys mostly proceed in parallel without a lock object per key.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+
+    public StripedLocks(int stripes) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes must be a positive power of two");
+        }
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock get(Object key) {
+        return locks[indexFor(key)];
+    }
+
+    // Locks for several keys, de-duplicated and in stripe order so callers never deadlock each other
+    public List<Lock> getAll(Collection<?> keys) {
+        return keys.stream()
+                .mapToInt(this::indexFor)
+                .distinct()
+                .sorted()
+                .mapToObj(i -> (Lock) locks[i])
+                .toList();
+    }
+
+    private int indexFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return h & (locks.length - 1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.reservation.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Token buckets by key. Bucket state is two primitives guarded by a striped lock, so a check costs
+ * one map lookup and no allocation once the bucket exists. Buckets refill continuously at
+ * capacity / period and are dropped by {@link #evictIdle} once unused.
+ */
+public class TokenBuckets {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final StripedLocks locks;
+
+    public TokenBuckets(int stripes) {
+        this.locks = new StripedLocks(stripes);
+    }
+
+    // Takes one token; returns 0 on success, otherwise the nanoseconds until a token is available
+    public long tryAcquire(String key, int capacity, long periodNanos, long nowNanos) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, nowNanos));
+        }
+        double tokensPerNano = (double) capacity / periodNanos;
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            double tokens = Math.min(capacity, bucket.tokens + (nowNanos - bucket.updated) * tokensPerNano);
+            bucket.updated = nowNanos;
+            if (tokens >= 1) {
+                bucket.tokens = tokens - 1;
+                return 0;
+            }
+            bucket.tokens = tokens;
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Gives back a token taken by tryAcquire, e.g. when a second bucket then refused the request
+    public void refund(String key, int capacity) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            bucket.tokens = Math.min(capacity, bucket.tokens + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes buckets not used for idleNanos; a full refill has happened by then for any sensible period
+    public int evictIdle(long idleNanos, long nowNanos) {
+        int evicted = 0;
+        Iterator<Map.Entry<String, Bucket>> it = buckets.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Bucket> entry = it.next();
+            Lock lock = locks.get(entry.getKey());
+            lock.lock();
+            try {
+                if (nowNanos - entry.getValue().updated > idleNanos) {
+                    it.remove();
+                    evicted++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updated;
+
+        private Bucket(int capacity, long nowNanos) {
+            this.tokens = capacity;
+            this.updated = nowNanos;
+        }
+    }
+}
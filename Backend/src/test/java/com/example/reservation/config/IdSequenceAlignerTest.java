@@ -0,0 +1,44 @@
+package com.example.reservation.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdSequenceAlignerTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:aligner;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1"));
+    private final IdSequenceAligner aligner = new IdSequenceAligner(jdbcTemplate);
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void sequenceTablesAreMovedPastTheMaximumIdAndNativeSequencesSkipped() {
+        jdbcTemplate.execute("CREATE TABLE room (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE room_seq (next_val BIGINT)");
+        jdbcTemplate.update("INSERT INTO room_seq VALUES (1)");
+        jdbcTemplate.update("INSERT INTO room VALUES (500)");
+        // Native sequence: nothing to align
+        jdbcTemplate.execute("CREATE SEQUENCE user_seq");
+
+        aligner.align();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM room_seq", Long.class)).isEqualTo(551);
+    }
+
+    @Test
+    void anyOtherFailureStopsStartup() {
+        // The sequence table is there but the update cannot run
+        jdbcTemplate.execute("CREATE TABLE reservation_seq (next_val BIGINT)");
+
+        assertThatThrownBy(aligner::align).isInstanceOf(DataAccessException.class);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.reservation.repository;
+
+import com.example.reservation.dto.NotificationSummary;
+import com.example.reservation.model.Notification;
+import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:notifications;MODE=MySQL;NON_KEYWORDS=USER")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class NotificationRepositoryTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void inboxPagesWalkNewestFirstWithoutGapsOrDuplicates() {
+        User user = persistUser("alice@example.com");
+        User other = persistUser("bob@example.com");
+        LocalDateTime start = LocalDateTime.of(2025, 1, 6, 9, 0);
+        for (int i = 0; i < 25; i++) {
+            // Pairs share a timestamp, so the id breaks ties
+            persistNotification(user, "n" + i, start.plusMinutes(i / 2), i % 3 == 0);
+            persistNotification(other, "other" + i, start.plusMinutes(i / 2), false);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<NotificationSummary> all = new ArrayList<>();
+        List<NotificationSummary> page = notificationRepository.findInboxPage(user.getId(), false, null, null, Limit.of(10));
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            NotificationSummary last = page.get(page.size() - 1);
+            page = notificationRepository.findInboxPage(user.getId(), false, last.createdAt(), last.id(), Limit.of(10));
+        }
+
+        assertThat(all).hasSize(25);
+        assertThat(all).extracting(NotificationSummary::message).doesNotContain("other0");
+        for (int i = 1; i < all.size(); i++) {
+            NotificationSummary previous = all.get(i - 1);
+            NotificationSummary current = all.get(i);
+            assertThat(current.createdAt()).isBeforeOrEqualTo(previous.createdAt());
+            if (current.createdAt().equals(previous.createdAt())) {
+                assertThat(current.id()).isLessThan(previous.id());
+            }
+        }
+
+        assertThat(notificationRepository.findInboxPage(user.getId(), true, null, null, Limit.of(50)))
+                .hasSize(16)
+                .noneMatch(NotificationSummary::seen);
+    }
+
+    @Test
+    void replayIncludesLowerIdsCreatedSinceTheGivenTime() {
+        User user = persistUser("carol@example.com");
+        LocalDateTime nine = LocalDateTime.of(2025, 1, 6, 9, 0);
+        Long early = persistNotification(user, "early", nine.minusHours(1), false);
+        Long late = persistNotification(user, "committed late", nine.minusSeconds(30), false);
+        Long last = persistNotification(user, "last seen", nine, false);
+        Long next = persistNotification(user, "next", nine.plusSeconds(5), false);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(notificationRepository.findCreatedAt(user.getId(), last)).contains(nine);
+        assertThat(notificationRepository.findEventsAfter(user.getId(), last, null, Limit.of(10)))
+                .extracting(NotificationSummary::id)
+                .containsExactly(next);
+        assertThat(notificationRepository.findEventsAfter(user.getId(), last, nine.minusMinutes(1), Limit.of(10)))
+                .extracting(NotificationSummary::id)
+                .containsExactly(late, next)
+                .doesNotContain(early);
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFullName(email);
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        return entityManager.persist(user);
+    }
+
+    private Long persistNotification(User user, String message, LocalDateTime createdAt, boolean seen) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setMessage(message);
+        notification.setCreatedAt(createdAt);
+        notification.setSeen(seen);
+        return entityManager.persist(notification).getId();
+    }
+}
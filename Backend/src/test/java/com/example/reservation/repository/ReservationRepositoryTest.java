@@ -0,0 +1,172 @@
+package com.example.reservation.repository;
+
+import com.example.reservation.dto.ReservationSummary;
+import com.example.reservation.model.Reservation;
+import com.example.reservation.model.Room;
+import com.example.reservation.model.TimeSlot;
+import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservations;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ReservationRepositoryTest {
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingIsOneStatementWhateverTheRowCount() {
+        persistReservations(3);
+        assertThat(countStatements(() -> firstPage(100))).isEqualTo(1);
+
+        persistReservations(30);
+        assertThat(countStatements(() -> firstPage(100))).isEqualTo(1);
+    }
+
+    @Test
+    void listingCarriesRoomUserAndTimeSlot() {
+        persistReservations(2);
+        entityManager.clear();
+
+        List<ReservationSummary> summaries = firstPage(100);
+
+        assertThat(summaries).hasSize(2);
+        assertThat(summaries.get(0).roomName()).isEqualTo("Room 0");
+        assertThat(summaries.get(0).userName()).isEqualTo("User 0");
+        assertThat(summaries.get(0).startTime()).isBefore(summaries.get(1).startTime());
+    }
+
+    @Test
+    void keysetPagesFollowEachOtherWithoutGapsOrDuplicates() {
+        List<Reservation> reservations = persistReservations(5);
+        entityManager.clear();
+
+        List<ReservationSummary> first = firstPage(2);
+        ReservationSummary last = first.get(1);
+        List<ReservationSummary> second = reservationRepository.findPage(null, null, null, null,
+                last.startTime(), last.id(), Limit.of(10));
+
+        assertThat(first).extracting(ReservationSummary::id)
+                .containsExactly(reservations.get(0).getId(), reservations.get(1).getId());
+        assertThat(second).extracting(ReservationSummary::id)
+                .containsExactly(reservations.get(2).getId(), reservations.get(3).getId(), reservations.get(4).getId());
+    }
+
+    @Test
+    void listingFiltersByRoom() {
+        Reservation reservation = persistReservations(3).get(1);
+        entityManager.clear();
+
+        List<ReservationSummary> summaries = reservationRepository.findPage(reservation.getRoom().getId(), null,
+                null, null, null, null, Limit.of(10));
+
+        assertThat(summaries).extracting(ReservationSummary::id).containsExactly(reservation.getId());
+    }
+
+    @Test
+    void singleReservationLoadsItsDetailsInOneStatement() {
+        Long id = persistReservations(1).get(0).getId();
+
+        long statements = countStatements(() -> {
+            Reservation reservation = reservationRepository.findWithDetailsById(id).orElseThrow();
+            reservation.getRoom().getName();
+            reservation.getTimeSlot().getStartTime();
+            return reservation;
+        });
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void bookingInsertsAreBatched() {
+        // 100 rooms, users and reservations: 300 rows
+        long statements = countStatements(() -> persistReservations(100));
+
+        // Pooled sequence ids let Hibernate send these as JDBC batches instead of 300 single inserts
+        assertThat(statements).isLessThan(40);
+    }
+
+    @Test
+    void aReminderIsClaimedOncePerStartTime() {
+        Reservation reservation = persistReservations(1).get(0);
+        LocalDateTime start = reservation.getTimeSlot().getStartTime();
+        entityManager.clear();
+
+        assertThat(reservationRepository.claimReminder(reservation.getId(), start.plusHours(1))).isZero();
+        assertThat(reservationRepository.claimReminder(reservation.getId(), start)).isEqualTo(1);
+        assertThat(reservationRepository.claimReminder(reservation.getId(), start)).isZero();
+
+        assertThat(reservationRepository.releaseReminder(reservation.getId(), start)).isEqualTo(1);
+        assertThat(reservationRepository.claimReminder(reservation.getId(), start)).isEqualTo(1);
+    }
+
+    private List<ReservationSummary> firstPage(int limit) {
+        return reservationRepository.findPage(null, null, null, null, null, null, Limit.of(limit));
+    }
+
+    private long countStatements(Supplier<?> query) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        query.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Reservation> persistReservations(int count) {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 7, 8, 0);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Room room = new Room();
+            room.setName("Room " + i);
+            room.setCapacity(10);
+            entityManager.persist(room);
+
+            User user = User.builder().fullName("User " + i).email("user" + i + "-" + System.nanoTime() + "@test")
+                    .password("secret").role(Role.USER).build();
+            entityManager.persist(user);
+
+            Reservation reservation = new Reservation();
+            reservation.setRoom(room);
+            reservation.setUser(user);
+            reservation.setTimeSlot(new TimeSlot(start.plusHours(i), start.plusHours(i + 1)));
+            reservation.setPurpose("Meeting");
+            reservation.setAttendees(2);
+            reservations.add(entityManager.persist(reservation));
+        }
+        entityManager.flush();
+        return reservations;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.reservation.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:idempotencyfilter;MODE=MySQL;NON_KEYWORDS=USER")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IdempotencyStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"purpose\":\"Planning\"}";
+
+    @Autowired
+    private IdempotencyStore store;
+
+    private final BookingController controller = new BookingController();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addFilters(new IdempotencyFilter(store, true, List.of("/api/reservations")))
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice@example.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void retryWithTheSameKeyAndBodyIsReplayed() throws Exception {
+        // The controller reads the body the filter has already consumed
+        mockMvc.perform(book("replay", BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andExpect(content().json("{\"call\":1,\"purpose\":\"Planning\"}"));
+
+        mockMvc.perform(book("replay", BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("{\"call\":1,\"purpose\":\"Planning\"}"));
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void reusingAKeyForADifferentBodyIsRejected() throws Exception {
+        mockMvc.perform(book("reused", BODY)).andExpect(status().isCreated());
+
+        mockMvc.perform(book("reused", "{\"purpose\":\"Retro\"}"))
+                .andExpect(status().isUnprocessableEntity());
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keysAreScopedPerUser() throws Exception {
+        mockMvc.perform(book("shared", BODY)).andExpect(status().isCreated());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("bob@example.com", null, List.of()));
+
+        mockMvc.perform(book("shared", BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertThat(controller.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void serverErrorsAndRateLimitsAreNotStored() throws Exception {
+        controller.status = 503;
+        mockMvc.perform(book("retried", BODY)).andExpect(status().isServiceUnavailable());
+        controller.status = 429;
+        mockMvc.perform(book("retried", BODY)).andExpect(status().isTooManyRequests());
+        controller.status = 201;
+
+        mockMvc.perform(book("retried", BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andExpect(content().json("{\"call\":3}"));
+        mockMvc.perform(book("retried", BODY))
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().json("{\"call\":3}"));
+        assertThat(controller.calls.get()).isEqualTo(3);
+    }
+
+    private static RequestBuilder book(String key, String body) {
+        return post("/api/reservations")
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    @RestController
+    static class BookingController {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile int status = 201;
+
+        @PostMapping("/api/reservations")
+        ResponseEntity<Map<String, Object>> book(@RequestBody Map<String, Object> body) {
+            return ResponseEntity.status(status).body(Map.of("call", calls.incrementAndGet(),
+                    "purpose", body.get("purpose")));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.reservation.security;
+
+import com.example.reservation.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=MySQL;NON_KEYWORDS=USER")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IdempotencyStore.class)
+// Each call commits on its own, as in production, so the primary key arbitrates concurrent claims
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Test
+    void firstClaimOwnsTheKeyAndLaterClaimsSeeItsOutcome() {
+        IdempotencyStore.Claim first = store.claim("key-1", "hash");
+        assertThat(first.owned()).isTrue();
+
+        // Still running
+        IdempotencyStore.Claim pending = store.claim("key-1", "hash");
+        assertThat(pending.owned()).isFalse();
+        assertThat(pending.stored().status()).isNull();
+        assertThat(pending.stored().requestHash()).isEqualTo("hash");
+
+        assertThat(store.complete("key-1", first.leaseToken(), "hash", 200, "application/json",
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8))).isTrue();
+
+        IdempotencyStore.StoredResponse replay = store.claim("key-1", "hash").stored();
+        assertThat(replay.status()).isEqualTo(200);
+        assertThat(new String(replay.body(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void abandonedKeysCanBeClaimedAgain() {
+        IdempotencyStore.Claim claim = store.claim("key-2", "hash");
+        store.abandon("key-2", claim.leaseToken());
+
+        assertThat(store.claim("key-2", "hash").owned()).isTrue();
+    }
+
+    @Test
+    void pendingKeysAreFreedAfterTheirLease() {
+        IdempotencyStore leased = new IdempotencyStore(repository, Duration.ofHours(24), Duration.ZERO, 100);
+        assertThat(leased.claim("key-3", "hash").owned()).isTrue();
+
+        // The first request never completed: with its lease over, the retry owns the key
+        assertThat(leased.claim("key-3", "hash").owned()).isTrue();
+        assertThat(store.claim("key-3", "hash").stored().status()).isNull();
+    }
+
+    @Test
+    void aRequestThatLostItsLeaseCannotOverwriteTheResponseOfTheTakeover() {
+        IdempotencyStore leased = new IdempotencyStore(repository, Duration.ofHours(24), Duration.ZERO, 100);
+        IdempotencyStore.Claim slow = leased.claim("key-4", "hash");
+        IdempotencyStore.Claim takeover = leased.claim("key-4", "hash");
+
+        assertThat(leased.complete("key-4", takeover.leaseToken(), "hash", 201, "application/json",
+                "{\"id\":2}".getBytes(StandardCharsets.UTF_8))).isTrue();
+        assertThat(leased.complete("key-4", slow.leaseToken(), "hash", 201, "application/json",
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8))).isFalse();
+
+        IdempotencyStore.StoredResponse replay = store.claim("key-4", "hash").stored();
+        assertThat(new String(replay.body(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":2}");
+    }
+
+    @Test
+    void aRequestThatLostItsLeaseCannotFreeThePendingKeyOfTheTakeover() {
+        IdempotencyStore leased = new IdempotencyStore(repository, Duration.ofHours(24), Duration.ZERO, 100);
+        IdempotencyStore.Claim slow = leased.claim("key-5", "hash");
+        IdempotencyStore.Claim takeover = leased.claim("key-5", "hash");
+
+        leased.abandon("key-5", slow.leaseToken());
+
+        assertThat(repository.findById("key-5")).get()
+                .satisfies(record -> assertThat(record.getLeaseToken()).isEqualTo(takeover.leaseToken()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.reservation.security;
+
+import com.example.reservation.model.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private final JwtService jwtService = new JwtService();
+
+    @Test
+    void verifiedTokenIsServedFromCache() {
+        String token = jwtService.generateToken("alice@example.com", "USER");
+
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        assertThat(first.getSubject()).isEqualTo("alice@example.com");
+        assertThat(first.get("role", String.class)).isEqualTo("USER");
+        assertThat(second).isSameAs(first);
+        assertThat(jwtService.isTokenValid(token, "alice@example.com")).isTrue();
+        assertThat(jwtService.isTokenValid(token, "bob@example.com")).isFalse();
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterOriginalWasCached() {
+        String token = jwtService.generateToken("alice@example.com", "USER");
+        jwtService.verify(token);
+
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+
+        assertThatThrownBy(() -> jwtService.verify(forged)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void principalIsBuiltFromClaimsUntilTheUserIsRevoked() {
+        Claims claims = jwtService.verify(jwtService.generateToken(42L, "alice@example.com", "ADMIN"));
+        UserTokenRevocations revocations = new UserTokenRevocations();
+
+        AuthenticatedUser user = AuthenticatedUser.fromClaims(claims);
+
+        assertThat(user.getId()).isEqualTo(42L);
+        assertThat(user.getUsername()).isEqualTo("alice@example.com");
+        assertThat(user.getRole()).isEqualTo(Role.ADMIN);
+        assertThat(revocations.isRevoked(42L, claims.getIssuedAt())).isFalse();
+
+        revocations.revoke(42L);
+
+        assertThat(revocations.isRevoked(42L, claims.getIssuedAt())).isTrue();
+        assertThat(revocations.isRevoked(7L, claims.getIssuedAt())).isFalse();
+    }
+
+    @Test
+    void tokensWithoutUserIdFallBackToDatabaseLookup() {
+        Claims claims = jwtService.verify(jwtService.generateToken("alice@example.com", "USER"));
+
+        assertThat(AuthenticatedUser.fromClaims(claims)).isNull();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.reservation.security;
+
+import com.example.reservation.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+    @Test
+    void rejectsWorkBeyondTheQueueInsteadOfWaiting() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 3, registry);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = executor.submit(() -> await(release));
+            CompletableFuture<String> queued = executor.submit(() -> await(release));
+
+            assertThatThrownBy(() -> executor.submit(() -> "hash"))
+                    .isInstanceOf(ServiceBusyException.class)
+                    .satisfies(e -> assertThat(((ServiceBusyException) e).getRetryAfterSeconds()).isEqualTo(3));
+            assertThat(registry.get("reservation.password.hash.rejected").counter().count()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(running.get()).isEqualTo("done");
+            assertThat(queued.get()).isEqualTo("done");
+            assertThat(registry.get("reservation.password.hash.latency").timer().count()).isEqualTo(2);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
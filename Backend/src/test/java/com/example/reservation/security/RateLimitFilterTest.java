@@ -0,0 +1,90 @@
+package com.example.reservation.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTest {
+
+    private final JwtService jwtService = mock(JwtService.class);
+    // Three bookings per user and five per address an hour: nothing refills during the test
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new RateLimitProperties(true, Duration.ofMinutes(10), List.of(
+                    new RateLimitProperties.Rule("POST", "/api/reservations/**", 3, Duration.ofHours(1), 5))),
+            jwtService, new SimpleMeterRegistry());
+
+    @Test
+    void aUserCannotGetAroundTheLimitBySwitchingAddresses() throws ServletException, IOException {
+        for (int i = 1; i <= 3; i++) {
+            assertThat(book("alice", "10.0.0." + i).getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse rejected = book("alice", "10.0.0.4");
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+        assertThat(book("bob", "10.0.0.4").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void anAddressCannotGetAroundTheLimitByRotatingAccounts() throws ServletException, IOException {
+        for (int i = 1; i <= 5; i++) {
+            assertThat(book("user" + i, "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+
+        assertThat(book("user6", "10.0.0.1").getStatus()).isEqualTo(429);
+        // Refused by the address, so user1 was not charged: two bookings left from elsewhere
+        assertThat(book("user1", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(book("user1", "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(book("user1", "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(book("user1", "10.0.0.2").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void anonymousAndInvalidTokensAreLimitedByAddress() throws ServletException, IOException {
+        when(jwtService.verify(anyString())).thenThrow(new JwtException("Expired"));
+        for (int i = 0; i < 5; i++) {
+            assertThat(filter(request("10.0.0.1", i % 2 == 0 ? "Bearer expired" : null)).getStatus())
+                    .isEqualTo(200);
+        }
+
+        assertThat(filter(request("10.0.0.1", null)).getStatus()).isEqualTo(429);
+        assertThat(filter(request("10.0.0.2", null)).getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse book(String user, String address) throws ServletException, IOException {
+        Claims claims = Jwts.claims().setSubject(user);
+        when(jwtService.verify("token-" + user)).thenReturn(claims);
+        return filter(request(address, "Bearer token-" + user));
+    }
+
+    private MockHttpServletRequest request(String address, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/reservations");
+        request.setRemoteAddr(address);
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
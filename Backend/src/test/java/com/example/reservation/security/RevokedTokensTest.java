@@ -0,0 +1,150 @@
+package com.example.reservation.security;
+
+import com.example.reservation.controller.AdminTokenController;
+import com.example.reservation.controller.AuthController;
+import com.example.reservation.model.RevokedToken;
+import com.example.reservation.repository.RevokedTokenRepository;
+import com.example.reservation.service.AuthService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RevokedTokensTest {
+
+    // Rows of the revoked_token table
+    private final Map<String, RevokedToken> rows = new ConcurrentHashMap<>();
+    private RevokedTokens revokedTokens;
+
+    @BeforeEach
+    void setUp() {
+        RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+        when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> {
+            RevokedToken token = invocation.getArgument(0);
+            rows.put(token.getJti(), token);
+            return token;
+        });
+        when(repository.existsById(any())).thenAnswer(invocation -> rows.containsKey(invocation.<String>getArgument(0)));
+        when(repository.findLiveJtis(any())).thenAnswer(invocation -> new ArrayList<>(rows.keySet()));
+        when(repository.count()).thenAnswer(invocation -> (long) rows.size());
+        when(repository.findJtisRevokedSince(any())).thenAnswer(invocation -> rows.values().stream()
+                .filter(row -> !row.getRevokedAt().isBefore(invocation.getArgument(0)))
+                .map(RevokedToken::getJti)
+                .toList());
+        revokedTokens = new RevokedTokens(repository);
+        revokedTokens.rebuild();
+    }
+
+    @Test
+    void onlyRevokedTokensAreReported() {
+        revokedTokens.revoke(claims("revoked"));
+
+        assertThat(revokedTokens.isRevoked(claims("revoked"))).isTrue();
+        assertThat(revokedTokens.isRevoked(claims("live"))).isFalse();
+        // Tokens issued without a jti cannot be revoked
+        assertThat(revokedTokens.isRevoked(Jwts.claims())).isFalse();
+    }
+
+    @Test
+    void revocationsDuringRebuildsAreNeverLost() throws InterruptedException {
+        AtomicBoolean revoking = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread rebuilder = new Thread(() -> {
+            started.countDown();
+            while (revoking.get()) {
+                revokedTokens.rebuild();
+            }
+        });
+        rebuilder.start();
+        started.await();
+
+        List<String> jtis = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String jti = "jti-" + i;
+            revokedTokens.revoke(claims(jti));
+            jtis.add(jti);
+        }
+        revoking.set(false);
+        rebuilder.join();
+
+        // A jti missing from both the swapped-in filter and its snapshot would read as not revoked
+        assertThat(jtis).allMatch(jti -> revokedTokens.isRevoked(claims(jti)));
+    }
+
+    @Test
+    void revocationAfterTheRebuildSnapshotReachesTheNewFilter() {
+        RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+        RevokedTokens tokens = new RevokedTokens(repository);
+        when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.existsById(any())).thenReturn(true);
+        // The snapshot is read, then a token is revoked before the new filter is swapped in
+        when(repository.findLiveJtis(any())).thenAnswer(invocation -> {
+            tokens.revoke(claims("late"));
+            return List.of();
+        });
+        tokens.rebuild();
+
+        // The table is only asked on a filter hit: a miss would read as not revoked
+        assertThat(tokens.isRevoked(claims("late"))).isTrue();
+    }
+
+    @Test
+    void revocationsOfOtherNodesArePickedUpByTheNextRefresh() {
+        // Saved by another node: this node's filter has not seen it
+        rows.put("elsewhere", new RevokedToken("elsewhere", LocalDateTime.now().plusHours(1), LocalDateTime.now()));
+        assertThat(revokedTokens.isRevoked(claims("elsewhere"))).isFalse();
+
+        revokedTokens.refresh();
+
+        assertThat(revokedTokens.isRevoked(claims("elsewhere"))).isTrue();
+    }
+
+    @Test
+    void logoutRevokesTheBearerToken() throws Exception {
+        JwtService jwtService = new JwtService();
+        AuthService authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "jwtService", jwtService);
+        ReflectionTestUtils.setField(authService, "revokedTokens", revokedTokens);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(authService)).build();
+        String token = jwtService.generateToken(1L, "alice@example.com", "USER");
+
+        mockMvc.perform(post("/auth/logout")).andExpect(status().isBadRequest());
+        mockMvc.perform(post("/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        assertThat(revokedTokens.isRevoked(jwtService.verify(token))).isTrue();
+    }
+
+    @Test
+    void adminRevokesTokenById() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AdminTokenController(revokedTokens)).build();
+
+        mockMvc.perform(post("/api/admin/tokens/{jti}/revoke", "stolen")).andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/admin/tokens/{jti}/revoke", "x".repeat(37))).andExpect(status().isBadRequest());
+
+        assertThat(revokedTokens.isRevoked(claims("stolen"))).isTrue();
+    }
+
+    private static Claims claims(String jti) {
+        return Jwts.claims().setId(jti).setExpiration(new Date(System.currentTimeMillis() + 60_000));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.reservation.service;
+
+import com.example.reservation.config.TimeSlotBackfill;
+import com.example.reservation.dto.ImportReport;
+import com.example.reservation.dto.ImportReport.RowError;
+import com.example.reservation.dto.ReservationSlot;
+import com.example.reservation.model.Reservation;
+import com.example.reservation.model.Room;
+import com.example.reservation.model.TimeSlot;
+import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import com.example.reservation.repository.ReservationRepository;
+import com.example.reservation.repository.RoomRepository;
+import com.example.reservation.repository.UserRepository;
+import com.example.reservation.security.CurrentUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:import;MODE=MySQL;NON_KEYWORDS=USER")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ImportService.class, ReservationService.class, RoomOccupancyIndex.class})
+// The import commits on its own, as in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ImportServiceTest {
+
+    private static final String HEADER = "roomId,userEmail,date,startTime,endTime,purpose,attendees\n";
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @MockitoBean
+    private ReservationReminders reminders;
+
+    @MockitoBean
+    private ReservationHolds holds;
+
+    @MockitoBean
+    private CurrentUser currentUser;
+
+    @MockitoBean
+    private TimeSlotBackfill timeSlotBackfill;
+
+    private Room room;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        room = new Room();
+        room.setName("Room " + System.nanoTime());
+        room.setCapacity(10);
+        room = roomRepository.save(room);
+        user = new User();
+        user.setEmail("importer" + System.nanoTime() + "@example.com");
+        user.setFullName("Importer");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void invalidRowsAreReportedWithTheirLineAndTheRestImported() throws IOException {
+        ImportReport report = importReservations(
+                row("2030-01-07", "09:00", "10:00", 3),
+                row("2030-01-07", "12:00", "11:00", 3),
+                row("2030-01-07", "13:00", "14:00", 50),
+                row("2030-13-07", "15:00", "16:00", 3),
+                room.getId() + "," + user.getEmail() + ",2030-01-07,17:00",
+                "",
+                row("2030-01-07", "18:00", "19:00", 3));
+
+        assertThat(report.rows()).isEqualTo(6);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.errors()).extracting(RowError::line).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(report.errors().get(0).message()).isEqualTo("Start time must be before end time");
+        assertThat(report.errors().get(1).message()).isEqualTo("Number of attendees exceeds room capacity");
+        assertThat(report.errors().get(3).message()).startsWith("Expected columns:");
+        assertThat(slotsOf(room)).hasSize(2);
+    }
+
+    @Test
+    void overlappingRowsInTheFileAndInTheDatabaseAreRejected() throws IOException {
+        // Booked by another node: in the database, not in this node's index
+        Reservation existing = new Reservation();
+        existing.setRoom(room);
+        existing.setUser(user);
+        existing.setTimeSlot(new TimeSlot(LocalDateTime.of(2030, 1, 7, 15, 0), LocalDateTime.of(2030, 1, 7, 16, 0)));
+        existing.setPurpose("Existing");
+        existing.setAttendees(2);
+        reservationRepository.save(existing);
+
+        ImportReport report = importReservations(
+                row("2030-01-07", "09:00", "10:00", 3),
+                row("2030-01-07", "09:30", "10:30", 3),
+                row("2030-01-07", "10:00", "11:00", 3),
+                row("2030-01-07", "15:30", "16:30", 3),
+                row("2030-01-07", "16:00", "17:00", 3));
+
+        assertThat(report.imported()).isEqualTo(3);
+        assertThat(report.errors()).containsExactly(
+                new RowError(3, "Overlaps the reservation on line 2"),
+                new RowError(5, "The room is already reserved for the specified time slot"));
+        assertThat(slotsOf(room)).hasSize(4);
+    }
+
+    @Test
+    void rowsAreCheckedAgainstLongBookingsHoldsAndLegacyRows() throws IOException {
+        // Starts the evening before the first imported row
+        Reservation overnight = new Reservation();
+        overnight.setRoom(room);
+        overnight.setUser(user);
+        overnight.setTimeSlot(new TimeSlot(LocalDateTime.of(2030, 1, 6, 20, 0), LocalDateTime.of(2030, 1, 7, 8, 30)));
+        overnight.setPurpose("Overnight");
+        overnight.setAttendees(2);
+        reservationRepository.save(overnight);
+        occupancyIndex.putHold(System.nanoTime(), room.getId(), LocalDateTime.of(2030, 1, 7, 12, 0),
+                LocalDateTime.of(2030, 1, 7, 13, 0));
+        when(timeSlotBackfill.pendingSlots(eq(room.getId()), any(), any())).thenReturn(List.of(
+                new ReservationSlot(-1L, room.getId(), LocalDateTime.of(2030, 1, 7, 14, 0),
+                        LocalDateTime.of(2030, 1, 7, 15, 0))));
+
+        ImportReport report = importReservations(
+                row("2030-01-07", "08:00", "08:30", 3),
+                row("2030-01-07", "08:30", "09:00", 3),
+                row("2030-01-07", "12:30", "13:00", 3),
+                row("2030-01-07", "13:00", "14:00", 3),
+                row("2030-01-07", "14:30", "15:30", 3));
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.errors()).extracting(RowError::line).containsExactly(2L, 4L, 6L);
+    }
+
+    @Test
+    void rowsOfUnknownRoomsAndUsersAreRejected() throws IOException {
+        ImportReport report = importReservations(
+                "999999," + user.getEmail() + ",2030-01-07,09:00,10:00,Planning,3",
+                room.getId() + ",nobody@example.com,2030-01-07,09:00,10:00,Planning,3",
+                row("2030-01-07", "09:00", "10:00", 3));
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).containsExactly(
+                new RowError(2, "Room not found with id: 999999"),
+                new RowError(3, "User not found with email: nobody@example.com"));
+    }
+
+    private ImportReport importReservations(String... rows) throws IOException {
+        String csv = HEADER + String.join("\n", rows) + "\n";
+        return importService.importReservations(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String row(String date, String start, String end, int attendees) {
+        return room.getId() + "," + user.getEmail() + "," + date + "," + start + "," + end + ",Planning," + attendees;
+    }
+
+    private List<ReservationSlot> slotsOf(Room room) {
+        return reservationRepository.findSlotsByRoomBetween(room.getId(), LocalDateTime.of(2030, 1, 1, 0, 0),
+                LocalDateTime.of(2030, 12, 31, 0, 0));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.BroadcastProgress;
+import com.example.reservation.dto.BroadcastRequest;
+import com.example.reservation.exception.ResourceNotFoundException;
+import com.example.reservation.model.enums.Role;
+import com.example.reservation.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationBroadcastServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final NotificationWriter notificationWriter = mock(NotificationWriter.class);
+    private final NotificationBroadcastService broadcastService =
+            new NotificationBroadcastService(userRepository, notificationWriter);
+
+    @AfterEach
+    void tearDown() {
+        broadcastService.shutdown();
+    }
+
+    @Test
+    void exactlyOneAudienceIsRequired() {
+        assertThatThrownBy(() -> broadcastService.start(new BroadcastRequest(" ", Role.USER, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> broadcastService.start(new BroadcastRequest("Hello", null, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> broadcastService.start(new BroadcastRequest("Hello", Role.USER, 1L, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void audienceIsWrittenInKeysetChunks() throws InterruptedException {
+        List<Long> firstChunk = LongStream.rangeClosed(1, 1000).boxed().toList();
+        List<Long> lastChunk = LongStream.rangeClosed(1001, 1005).boxed().toList();
+        when(userRepository.countByRole(Role.USER)).thenReturn(1005L);
+        when(userRepository.findIdsByRole(Role.USER, 0L, Limit.of(1000))).thenReturn(firstChunk);
+        when(userRepository.findIdsByRole(Role.USER, 1000L, Limit.of(1000))).thenReturn(lastChunk);
+        // One recipient of the first chunk cannot be written
+        when(notificationWriter.writeNow(firstChunk, "Closed tomorrow")).thenReturn(999);
+        when(notificationWriter.writeNow(lastChunk, "Closed tomorrow")).thenReturn(5);
+
+        BroadcastProgress started = broadcastService.start(
+                new BroadcastRequest(" Closed tomorrow ", Role.USER, null, null));
+        BroadcastProgress finished = awaitFinished(started.id());
+
+        assertThat(finished.status()).isEqualTo("COMPLETED");
+        assertThat(finished.total()).isEqualTo(1005);
+        assertThat(finished.sent()).isEqualTo(1004);
+        assertThat(finished.failed()).isEqualTo(1);
+        verify(notificationWriter).writeNow(lastChunk, "Closed tomorrow");
+    }
+
+    @Test
+    void failedBroadcastsAreReported() throws InterruptedException {
+        when(userRepository.findIdsByRole(eq(Role.ADMIN), anyLong(), any())).thenReturn(List.of(1L));
+        when(notificationWriter.writeNow(anyList(), any())).thenThrow(new IllegalStateException("Database down"));
+
+        BroadcastProgress started = broadcastService.start(new BroadcastRequest("Hello", Role.ADMIN, null, null));
+
+        assertThat(awaitFinished(started.id()).status()).isEqualTo("FAILED");
+    }
+
+    @Test
+    void onlyTheNewestFinishedBroadcastsAreKept() throws InterruptedException {
+        when(userRepository.findIdsByRole(eq(Role.USER), anyLong(), any())).thenReturn(List.of());
+        // Enough broadcasts for ids to wrap around the buckets of a hash map
+        long last = 0;
+        for (int i = 0; i < 300; i++) {
+            last = broadcastService.start(new BroadcastRequest("Hello", Role.USER, null, null)).id();
+            awaitFinished(last);
+        }
+
+        for (long id = last - 99; id <= last; id++) {
+            assertThat(broadcastService.getProgress(id).status()).isEqualTo("COMPLETED");
+        }
+        long evicted = last - 100;
+        assertThatThrownBy(() -> broadcastService.getProgress(evicted))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private BroadcastProgress awaitFinished(Long id) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        BroadcastProgress progress = broadcastService.getProgress(id);
+        while (progress.finishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+            progress = broadcastService.getProgress(id);
+        }
+        assertThat(progress.finishedAt()).isNotNull();
+        return progress;
+    }
+}
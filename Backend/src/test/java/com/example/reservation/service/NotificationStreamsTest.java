@@ -0,0 +1,120 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.NotificationSummary;
+import com.example.reservation.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class NotificationStreamsTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0);
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final NotificationStreams streams = new NotificationStreams(notificationRepository,
+            new SimpleMeterRegistry());
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(streams)).build();
+
+    @AfterEach
+    void tearDown() {
+        streams.shutdown();
+    }
+
+    @Test
+    void notificationsCommittedOutOfIdOrderAreAllSent() throws Exception {
+        MockHttpServletResponse response = open(null);
+
+        // Ids from two pooled blocks: the lower one is committed last
+        streams.publish(1L, event(60L));
+        streams.publish(1L, event(12L));
+        streams.publish(1L, event(60L));
+
+        assertThat(awaitEventIds(response, 2)).containsExactly(60L, 12L);
+    }
+
+    @Test
+    void reconnectReplaysLowerIdsCreatedShortlyBeforeTheLastEventOnce() throws Exception {
+        when(notificationRepository.findCreatedAt(1L, 60L)).thenReturn(Optional.of(NINE));
+        when(notificationRepository.findEventsAfter(eq(1L), eq(60L), eq(NINE.minusMinutes(1)), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    // Published while the replay is read: sent once
+                    streams.publish(1L, event(61L));
+                    return List.of(event(12L), event(61L));
+                });
+
+        MockHttpServletResponse response = open(60L);
+
+        assertThat(awaitEventIds(response, 2)).containsExactly(12L, 61L);
+    }
+
+    private MockHttpServletResponse open(Long lastEventId) throws Exception {
+        var request = get("/stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static List<Long> awaitEventIds(MockHttpServletResponse response, int expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        List<Long> ids = eventIds(response);
+        while (ids.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            ids = eventIds(response);
+        }
+        // Anything sent twice would have arrived by now
+        Thread.sleep(100);
+        return eventIds(response);
+    }
+
+    private static List<Long> eventIds(MockHttpServletResponse response) throws Exception {
+        Matcher matcher = EVENT_ID.matcher(response.getContentAsString());
+        return matcher.results().map(result -> Long.parseLong(result.group(1))).toList();
+    }
+
+    private static NotificationSummary event(Long id) {
+        return new NotificationSummary(id, "Message " + id, false, NINE);
+    }
+
+    @RestController
+    static class StreamController {
+
+        private final NotificationStreams streams;
+
+        StreamController(NotificationStreams streams) {
+            this.streams = streams;
+        }
+
+        @GetMapping("/stream")
+        SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+            return streams.subscribe(1L, lastEventId);
+        }
+    }
+}
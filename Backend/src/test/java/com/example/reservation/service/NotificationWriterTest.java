@@ -0,0 +1,197 @@
+package com.example.reservation.service;
+
+import com.example.reservation.controller.NotificationController;
+import com.example.reservation.exception.GlobalExceptionHandler;
+import com.example.reservation.exception.ServiceBusyException;
+import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import com.example.reservation.repository.NotificationRepository;
+import com.example.reservation.repository.UserRepository;
+import com.example.reservation.security.CurrentUser;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:notificationwriter;MODE=MySQL;NON_KEYWORDS=USER")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// The writer commits its own batches, as in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationWriterTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final NotificationStreams streams = mock(NotificationStreams.class);
+    private final UnreadNotificationCounts unreadCounts = mock(UnreadNotificationCounts.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<NotificationWriter> writers = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("writer" + System.nanoTime() + "@example.com");
+        user.setFullName("Writer");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (NotificationWriter writer : writers) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void fullBatchesAreWrittenWithoutWaitingForTheDelay() throws InterruptedException {
+        NotificationWriter writer = writer(100, 5, Duration.ofMillis(300));
+        for (int i = 0; i < 12; i++) {
+            writer.enqueue(user.getId(), "Message " + i);
+        }
+        writer.start();
+
+        awaitRows(12);
+        DistributionSummary batchSizes = meterRegistry.summary("reservation.notification.flush.size");
+        assertThat(batchSizes.count()).isEqualTo(3);
+        assertThat(batchSizes.max()).isEqualTo(5);
+        verify(unreadCounts, times(12)).add(user.getId(), 1);
+        verify(streams, times(12)).publish(eq(user.getId()), any());
+    }
+
+    @Test
+    void aPartialBatchIsWrittenOnceTheDelayHasPassed() throws InterruptedException {
+        NotificationWriter writer = writer(100, 100, Duration.ofMillis(200));
+        writer.start();
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue(user.getId(), "Message " + i);
+        }
+
+        awaitRows(3);
+        assertThat(meterRegistry.summary("reservation.notification.flush.size").totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void aFullQueueRejectsCallersWith503() throws Exception {
+        // Not started: nothing drains the queue
+        NotificationWriter writer = writer(2, 100, Duration.ofMillis(200));
+        writer.enqueue(user.getId(), "First");
+        writer.enqueue(user.getId(), "Second");
+
+        assertThatThrownBy(() -> writer.enqueue(user.getId(), "Third"))
+                .isInstanceOf(ServiceBusyException.class);
+
+        NotificationService notificationService = new NotificationService(notificationRepository,
+                mock(CurrentUser.class), streams, writer, unreadCounts);
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new NotificationController(notificationService, mock(ArchiveHistoryService.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        mockMvc.perform(post("/api/notifications/" + user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"Third\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(post("/api/notifications/" + user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\" \"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void aBadRowIsDroppedWithoutLosingTheRestOfItsBatch() throws InterruptedException {
+        NotificationWriter writer = writer(100, 100, Duration.ofMillis(200));
+        writer.enqueue(user.getId(), "Before");
+        writer.enqueue(999_999L, "For a deleted user");
+        writer.enqueue(user.getId(), "After");
+        writer.start();
+
+        awaitRows(2);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (meterRegistry.counter("reservation.notification.failed").count() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(meterRegistry.counter("reservation.notification.failed").count()).isEqualTo(1);
+        assertThat(rows()).isEqualTo(2);
+    }
+
+    @Test
+    void queuedNotificationsAreFlushedOnShutdown() throws InterruptedException {
+        // A delay far longer than the test: only the shutdown can flush the batch
+        NotificationWriter writer = writer(100, 100, Duration.ofMinutes(5));
+        writer.start();
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue(user.getId(), "Message " + i);
+        }
+
+        writer.shutdown();
+
+        assertThat(rows()).isEqualTo(3);
+        assertThatThrownBy(() -> writer.enqueue(user.getId(), "Too late"))
+                .isInstanceOf(ServiceBusyException.class);
+    }
+
+    private NotificationWriter writer(int queueCapacity, int batchSize, Duration maxDelay) {
+        NotificationWriter writer = new NotificationWriter(streams, unreadCounts, transactionManager, meterRegistry,
+                queueCapacity, batchSize, maxDelay, Duration.ofMillis(10));
+        ReflectionTestUtils.setField(writer, "entityManager", entityManager);
+        writers.add(writer);
+        return writer;
+    }
+
+    private long rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification WHERE user_id = ?", Long.class,
+                user.getId());
+    }
+
+    private void awaitRows(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (rows() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(rows()).isEqualTo(expected);
+    }
+}
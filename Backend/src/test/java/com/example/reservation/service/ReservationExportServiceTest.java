@@ -0,0 +1,115 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.ReservationSummary;
+import com.example.reservation.repository.ReservationRepository;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReservationExportServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    // Configured like Spring Boot's ObjectMapper: ISO dates
+    private final ReservationExportService exportService = new ReservationExportService(reservationRepository,
+            Jackson2ObjectMapperBuilder.json()
+                    .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .build());
+
+    @Test
+    void ndjsonHasOneObjectPerLine() throws IOException {
+        when(reservationRepository.streamAllSummaries()).thenReturn(Stream.of(
+                summary(1L, "Boardroom", "Alice", "Planning"),
+                summary(2L, "Lab", "Bob", null)));
+
+        assertThat(export(ReservationExportService.NDJSON)).isEqualTo(
+                "{\"id\":1,\"roomId\":10,\"roomName\":\"Boardroom\",\"userId\":20,\"userName\":\"Alice\","
+                + "\"startTime\":\"2030-01-07T09:00:00\",\"endTime\":\"2030-01-07T10:00:00\","
+                + "\"purpose\":\"Planning\",\"attendees\":4}\n"
+                + "{\"id\":2,\"roomId\":10,\"roomName\":\"Lab\",\"userId\":20,\"userName\":\"Bob\","
+                + "\"startTime\":\"2030-01-07T09:00:00\",\"endTime\":\"2030-01-07T10:00:00\","
+                + "\"purpose\":null,\"attendees\":4}\n");
+    }
+
+    @Test
+    void csvQuotesOnlyFieldsThatNeedIt() throws IOException {
+        when(reservationRepository.streamAllSummaries()).thenReturn(Stream.of(
+                summary(1L, "Boardroom", "Alice", "Planning"),
+                summary(2L, "Lab, 2nd floor", "Bob \"The Builder\"", "Line one\nline two"),
+                summary(3L, null, null, null)));
+
+        assertThat(export(ReservationExportService.CSV)).isEqualTo(
+                "id,roomId,roomName,userId,userName,startTime,endTime,purpose,attendees\n"
+                + "1,10,Boardroom,20,Alice,2030-01-07T09:00,2030-01-07T10:00,Planning,4\n"
+                + "2,10,\"Lab, 2nd floor\",20,\"Bob \"\"The Builder\"\"\",2030-01-07T09:00,2030-01-07T10:00,"
+                + "\"Line one\nline two\",4\n"
+                + "3,10,,20,,2030-01-07T09:00,2030-01-07T10:00,,4\n");
+    }
+
+    @Test
+    void rowsAreWrittenWhileTheResultIsStillBeingRead() throws IOException {
+        long total = 100_000;
+        AtomicLong read = new AtomicLong();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(reservationRepository.streamAllSummaries()).thenReturn(LongStream.rangeClosed(1, total)
+                .mapToObj(id -> {
+                    read.incrementAndGet();
+                    return summary(id, "Boardroom", "Alice", "Planning");
+                })
+                .onClose(() -> closed.set(true)));
+        AtomicLong readAtFirstWrite = new AtomicLong(-1);
+        AtomicLong written = new AtomicLong();
+        OutputStream response = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                readAtFirstWrite.compareAndSet(-1, read.get());
+                written.addAndGet(length);
+            }
+        };
+
+        exportService.export(ReservationExportService.CSV, response);
+
+        assertThat(read.get()).isEqualTo(total);
+        // Flushed out a buffer at a time instead of after the last row
+        assertThat(readAtFirstWrite.get()).isBetween(1L, 1_000L);
+        assertThat(written.get()).isGreaterThan(total * 50);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void unknownFormatsAreRejected() {
+        assertThatThrownBy(() -> exportService.export("xml", new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String export(String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.export(format, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ReservationSummary summary(Long id, String roomName, String userName, String purpose) {
+        return new ReservationSummary(id, 10L, roomName, 20L, userName, NINE, NINE.plusHours(1), purpose, 4);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.reservation.service;
+
+import com.example.reservation.config.TimeSlotBackfill;
+import com.example.reservation.exception.ResourceNotFoundException;
+import com.example.reservation.model.Reservation;
+import com.example.reservation.model.Room;
+import com.example.reservation.model.TimeSlot;
+import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import com.example.reservation.repository.ReservationHoldRepository;
+import com.example.reservation.repository.ReservationRepository;
+import com.example.reservation.repository.RoomRepository;
+import com.example.reservation.repository.UserRepository;
+import com.example.reservation.security.CurrentUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Each Node is a service with its own holds and occupancy index over one database, as application nodes would run
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:holds;MODE=MySQL;NON_KEYWORDS=USER;LOCK_TIMEOUT=10000")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationHoldsTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationHoldRepository holdRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CurrentUser currentUser = mock(CurrentUser.class);
+    private User holder;
+    private User other;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        holder = user();
+        other = user();
+        room = new Room();
+        room.setName("Room " + System.nanoTime());
+        room.setCapacity(4);
+        room = roomRepository.save(room);
+        when(currentUser.get()).thenReturn(holder);
+    }
+
+    @Test
+    void holdPlacedOnOneNodeBlocksBookingsOnTheOtherAndIsConfirmedThere() {
+        Node nodeA = new Node(true);
+        Node nodeB = new Node(true);
+        ReservationHolds.Hold hold = nodeA.service.placeHold(slot(NINE, NINE.plusHours(1)), room.getId(), 4);
+
+        assertThatThrownBy(() -> nodeB.service.reserveRoomForUser(slot(NINE.plusMinutes(30), NINE.plusMinutes(90)),
+                room.getId(), "Sneaky", 2, other.getId()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> nodeB.service.placeHold(slot(NINE, NINE.plusMinutes(30)), room.getId(), 1))
+                .isInstanceOf(IllegalStateException.class);
+        // Only the owner can see, confirm or release it
+        assertThat(nodeB.holds.get(hold.id(), other.getId())).isNull();
+        assertThat(nodeB.holds.take(hold.id(), other.getId())).isNull();
+
+        Reservation reservation = nodeB.service.confirmHold(hold.id(), "Planning", null);
+
+        assertThat(reservation.getAttendees()).isEqualTo(4);
+        assertThat(holdRepository.existsById(hold.id())).isFalse();
+        assertThatThrownBy(() -> nodeA.service.releaseHold(hold.id())).isInstanceOf(ResourceNotFoundException.class);
+        // Node A still expires it on schedule, which finds nothing left to expire
+        nodeA.holds.expire(System.currentTimeMillis() + Duration.ofMinutes(5).plusSeconds(2).toMillis());
+        assertThat(nodeA.meterRegistry.counter("reservation.holds.expired").count()).isZero();
+    }
+
+    @Test
+    void holdsPerUserAreCapped() {
+        Node node = new Node(true);
+        node.service.placeHold(slot(NINE, NINE.plusHours(1)), room.getId(), 1);
+        ReservationHolds.Hold second = node.service.placeHold(slot(NINE.plusHours(1), NINE.plusHours(2)), room.getId(), 1);
+
+        assertThatThrownBy(() -> node.service.placeHold(slot(NINE.plusHours(2), NINE.plusHours(3)), room.getId(), 1))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(node.holds.isHeld(room.getId(), NINE.plusHours(2), NINE.plusHours(3))).isFalse();
+
+        node.service.releaseHold(second.id());
+        node.service.placeHold(slot(NINE.plusHours(2), NINE.plusHours(3)), room.getId(), 1);
+    }
+
+    @Test
+    void holdsExpireAfterTheirTtl() {
+        Node node = new Node(true);
+        long now = System.currentTimeMillis();
+        ReservationHolds.Hold hold = node.service.placeHold(slot(NINE, NINE.plusHours(1)), room.getId(), 4);
+
+        node.holds.expire(now + Duration.ofMinutes(4).toMillis());
+        assertThat(node.holds.get(hold.id(), holder.getId())).isEqualTo(hold);
+
+        // Deadlines are rounded up to the next one-second tick
+        node.holds.expire(now + Duration.ofMinutes(5).plusSeconds(2).toMillis());
+        assertThat(holdRepository.existsById(hold.id())).isFalse();
+        assertThat(node.meterRegistry.counter("reservation.holds.expired").count()).isEqualTo(1);
+        node.service.reserveRoomForUser(slot(NINE, NINE.plusHours(1)), room.getId(), "Free again", 2, other.getId());
+    }
+
+    @Test
+    void failedConfirmationKeepsTheHold() {
+        Node node = new Node(true);
+        ReservationHolds.Hold hold = node.service.placeHold(slot(NINE, NINE.plusHours(1)), room.getId(), 4);
+
+        assertThatThrownBy(() -> node.service.confirmHold(hold.id(), "Too many", 6))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(node.holds.get(hold.id(), holder.getId())).isEqualTo(hold);
+        assertThatThrownBy(() -> node.service.reserveRoomForUser(slot(NINE, NINE.plusHours(1)), room.getId(),
+                "Sneaky", 2, other.getId()))
+                .isInstanceOf(IllegalStateException.class);
+        node.service.confirmHold(hold.id(), "Fewer", 3);
+    }
+
+    @Test
+    void withoutTheDatabaseCheckHoldsAreMirroredInTheIndex() {
+        Node node = new Node(false);
+        ReservationHolds.Hold first = node.service.placeHold(slot(NINE, NINE.plusHours(1)), room.getId(), 2);
+        ReservationHolds.Hold second = node.service.placeHold(slot(NINE.plusHours(1), NINE.plusHours(2)),
+                room.getId(), 2);
+        assertThat(node.index.overlaps(room.getId(), NINE, NINE.plusHours(2))).isTrue();
+
+        // A failed confirmation puts the mirror back, a successful one replaces it with the reservation
+        assertThatThrownBy(() -> node.service.confirmHold(first.id(), "Too many", 6))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(node.index.overlaps(room.getId(), NINE, NINE.plusHours(1))).isTrue();
+        Reservation reservation = node.service.confirmHold(first.id(), "Planning", null);
+        assertThat(node.index.busySlots(room.getId(), NINE, NINE.plusHours(1)))
+                .extracting(slot -> slot.reservationId())
+                .containsExactly(reservation.getId());
+
+        node.service.releaseHold(second.id());
+        assertThat(node.index.overlaps(room.getId(), NINE.plusHours(1), NINE.plusHours(2))).isFalse();
+    }
+
+    private User user() {
+        User user = new User();
+        user.setEmail("holds" + System.nanoTime() + "@example.com");
+        user.setFullName("Hold Tester");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private static TimeSlot slot(LocalDateTime start, LocalDateTime end) {
+        return new TimeSlot(start, end);
+    }
+
+    private class Node {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final RoomOccupancyIndex index = new RoomOccupancyIndex(reservationRepository);
+        final ReservationHolds holds;
+        final ReservationService service;
+
+        Node(boolean dbConflictCheck) {
+            index.load();
+            holds = new ReservationHolds(holdRepository, index, meterRegistry, Duration.ofMinutes(5), 2,
+                    dbConflictCheck);
+            service = new ReservationService(reservationRepository, userRepository, roomRepository, index,
+                    mock(ReservationReminders.class), holds, currentUser, mock(TimeSlotBackfill.class),
+                    transactionManager, dbConflictCheck);
+        }
+    }
+}
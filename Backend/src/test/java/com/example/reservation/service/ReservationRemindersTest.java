@@ -0,0 +1,67 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.ReservationSummary;
+import com.example.reservation.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationRemindersTest {
+
+    private static final Duration LEAD = Duration.ofMinutes(15);
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+
+    @Test
+    void onlyTheNodeClaimingAReminderSendsIt() throws InterruptedException {
+        // Due in about a second
+        LocalDateTime start = LocalDateTime.now().plus(LEAD).plusSeconds(1);
+        when(reservationRepository.findSummariesByIdIn(anyList())).thenReturn(List.of(
+                new ReservationSummary(1L, 10L, "Boardroom", 20L, "Alice", start, start.plusHours(1), "Planning", 2)));
+        AtomicBoolean claimed = new AtomicBoolean();
+        when(reservationRepository.claimReminder(1L, start))
+                .thenAnswer(invocation -> claimed.compareAndSet(false, true) ? 1 : 0);
+        ReservationReminders nodeA = node();
+        ReservationReminders nodeB = node();
+        nodeA.schedule(1L, 20L, start);
+        nodeB.schedule(1L, 20L, start);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!claimed.get() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            nodeA.tick();
+            nodeB.tick();
+        }
+        // The other node's reminder is due in the same tick
+        Thread.sleep(1100);
+        nodeA.tick();
+        nodeB.tick();
+
+        verify(reservationRepository, times(2)).claimReminder(1L, start);
+        verify(notificationService, times(1)).sendNotification(eq(20L), anyString());
+        verify(reservationRepository, never()).releaseReminder(any(), any());
+    }
+
+    private ReservationReminders node() {
+        ReservationReminders reminders = new ReservationReminders(reservationRepository, notificationService,
+                new SimpleMeterRegistry(), true, LEAD, Duration.ofHours(24), 64);
+        reminders.extendHorizon();
+        return reminders;
+    }
+}
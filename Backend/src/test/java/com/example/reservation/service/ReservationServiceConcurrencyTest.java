@@ -0,0 +1,149 @@
+package com.example.reservation.service;
+
+import com.example.reservation.config.TimeSlotBackfill;
+import com.example.reservation.model.Reservation;
+import com.example.reservation.model.Room;
+import com.example.reservation.model.TimeSlot;
+import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import com.example.reservation.repository.ReservationRepository;
+import com.example.reservation.repository.RoomRepository;
+import com.example.reservation.repository.UserRepository;
+import com.example.reservation.security.CurrentUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Bookings within one JVM; ReservationServiceNodesTest covers several nodes over one database
+class ReservationServiceConcurrencyTest {
+
+    private static final int HOT_ROOMS = 4;
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS = 8_000;
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    private final Queue<Reservation> saved = new ConcurrentLinkedQueue<>();
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private RoomOccupancyIndex occupancyIndex;
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+
+        AtomicLong ids = new AtomicLong();
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setId(ids.incrementAndGet());
+            saved.add(reservation);
+            return reservation;
+        });
+        User user = User.builder().email("load@test").role(Role.USER).build();
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(roomRepository.findByIdForUpdate(anyLong())).thenAnswer(invocation -> {
+            Room room = new Room();
+            room.setId(invocation.getArgument(0));
+            room.setCapacity(10);
+            return Optional.of(room);
+        });
+
+        occupancyIndex = new RoomOccupancyIndex(reservationRepository);
+        occupancyIndex.load();
+        reservationService = service(true);
+    }
+
+    @Test
+    void parallelBookingsOnHotRoomsNeverOverlap() throws InterruptedException {
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < ATTEMPTS; i++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long roomId = random.nextInt(HOT_ROOMS) + 1;
+                LocalDateTime startTime = DAY.plusMinutes(15L * random.nextInt(40));
+                TimeSlot timeSlot = new TimeSlot(startTime, startTime.plusMinutes(15L * (random.nextInt(8) + 1)));
+                try {
+                    start.await();
+                    reservationService.reserveRoomForUser(timeSlot, roomId, "Load test", 2, 1L);
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(unexpected).isEmpty();
+        assertThat(saved.size() + rejected.get()).isEqualTo(ATTEMPTS);
+        assertThat(saved).isNotEmpty();
+        Map<Long, List<Reservation>> byRoom = saved.stream()
+                .collect(Collectors.groupingBy(reservation -> reservation.getRoom().getId()));
+        byRoom.values().forEach(this::assertNoOverlap);
+    }
+
+    @Test
+    void overlapQueryIsSkippedOnlyWhenDisabledAndTheIndexIsLoaded() {
+        TimeSlot nine = new TimeSlot(DAY.plusHours(1), DAY.plusHours(2));
+        when(reservationRepository.isRoomReserved(1L, nine.getStartTime(), nine.getEndTime())).thenReturn(true);
+
+        // Booked by another node: only the query knows
+        assertThatThrownBy(() -> reservationService.reserveRoomForUser(nine, 1L, "Planning", 2, 1L))
+                .isInstanceOf(IllegalStateException.class);
+        ReservationService singleNode = service(false);
+        singleNode.reserveRoomForUser(nine, 1L, "Planning", 2, 1L);
+        verify(reservationRepository, times(1)).isRoomReserved(any(), any(), any());
+
+        // Still answered by the index itself
+        assertThatThrownBy(() -> singleNode.reserveRoomForUser(nine, 1L, "Planning", 2, 1L))
+                .isInstanceOf(IllegalStateException.class);
+        verify(reservationRepository, times(1)).isRoomReserved(any(), any(), any());
+    }
+
+    private ReservationService service(boolean dbConflictCheck) {
+        return new ReservationService(reservationRepository, userRepository, roomRepository, occupancyIndex,
+                mock(ReservationReminders.class), mock(ReservationHolds.class), mock(CurrentUser.class),
+                mock(TimeSlotBackfill.class), mock(PlatformTransactionManager.class), dbConflictCheck);
+    }
+
+    private void assertNoOverlap(List<Reservation> reservations) {
+        List<Reservation> sorted = new ArrayList<>(reservations);
+        sorted.sort(Comparator.comparing(reservation -> reservation.getTimeSlot().getStartTime()));
+        for (int i = 1; i < sorted.size(); i++) {
+            TimeSlot previous = sorted.get(i - 1).getTimeSlot();
+            TimeSlot current = sorted.get(i).getTimeSlot();
+            assertThat(current.getStartTime()).isAfterOrEqualTo(previous.getEndTime());
+        }
+    }
+}
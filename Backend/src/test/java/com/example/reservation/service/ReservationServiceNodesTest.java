@@ -0,0 +1,140 @@
+package com.example.reservation.service;
+
+import com.example.reservation.config.TimeSlotBackfill;
+import com.example.reservation.model.Reservation;
+import com.example.reservation.model.Room;
+import com.example.reservation.model.TimeSlot;
+import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import com.example.reservation.repository.ReservationRepository;
+import com.example.reservation.repository.RoomRepository;
+import com.example.reservation.repository.UserRepository;
+import com.example.reservation.security.CurrentUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+// Two services with their own occupancy index over one database, as two application nodes would run
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:nodes;MODE=MySQL;NON_KEYWORDS=USER;LOCK_TIMEOUT=10000")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationServiceNodesTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private ReservationService nodeA;
+    private ReservationService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("nodes" + System.nanoTime() + "@example.com");
+        user.setFullName("Node Tester");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    void bookingOnOneNodeIsSeenByTheOther() {
+        Room room = room();
+        nodeA.reserveRoomForUser(slot(DAY, DAY.plusHours(1)), room.getId(), "Planning", 2, user.getId());
+
+        assertThatThrownBy(() -> nodeB.reserveRoomForUser(slot(DAY.plusMinutes(30), DAY.plusMinutes(90)),
+                room.getId(), "Retro", 2, user.getId()))
+                .isInstanceOf(IllegalStateException.class);
+        // Half-open slots: back-to-back bookings do not conflict
+        nodeB.reserveRoomForUser(slot(DAY.plusHours(1), DAY.plusHours(2)), room.getId(), "Retro", 2, user.getId());
+    }
+
+    @Test
+    void concurrentBookingsOnTwoNodesNeverOverlap() throws InterruptedException {
+        Room room = room();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 32; i++) {
+            ReservationService node = i % 2 == 0 ? nodeA : nodeB;
+            LocalDateTime startTime = DAY.plusMinutes(15L * (i % 8));
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    node.reserveRoomForUser(slot(startTime, startTime.plusMinutes(45)), room.getId(), "Load test",
+                            2, user.getId());
+                } catch (IllegalStateException e) {
+                    // Lost the slot to another booking
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(unexpected).isEmpty();
+        List<TimeSlot> booked = new ArrayList<>(reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getRoom().getId().equals(room.getId()))
+                .map(Reservation::getTimeSlot)
+                .toList());
+        assertThat(booked).isNotEmpty();
+        booked.sort(Comparator.comparing(TimeSlot::getStartTime));
+        for (int i = 1; i < booked.size(); i++) {
+            assertThat(booked.get(i).getStartTime()).isAfterOrEqualTo(booked.get(i - 1).getEndTime());
+        }
+    }
+
+    private ReservationService node() {
+        RoomOccupancyIndex occupancyIndex = new RoomOccupancyIndex(reservationRepository);
+        occupancyIndex.load();
+        return new ReservationService(reservationRepository, userRepository, roomRepository, occupancyIndex,
+                mock(ReservationReminders.class), mock(ReservationHolds.class), mock(CurrentUser.class),
+                mock(TimeSlotBackfill.class), transactionManager, true);
+    }
+
+    private Room room() {
+        Room room = new Room();
+        room.setName("Room " + System.nanoTime());
+        room.setCapacity(10);
+        return roomRepository.save(room);
+    }
+
+    private static TimeSlot slot(LocalDateTime start, LocalDateTime end) {
+        return new TimeSlot(start, end);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.NotificationSummary;
+import com.example.reservation.model.Notification;
+import com.example.reservation.model.Reservation;
+import com.example.reservation.model.Room;
+import com.example.reservation.model.TimeSlot;
+import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import com.example.reservation.repository.ArchivedNotificationRepository;
+import com.example.reservation.repository.NotificationRepository;
+import com.example.reservation.repository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive;MODE=MySQL;NON_KEYWORDS=USER",
+        "reservation.archive.batch-size=3",
+        "reservation.archive.pause=0ms"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RetentionArchiver.class)
+class RetentionArchiverTest {
+
+    @Autowired
+    private RetentionArchiver archiver;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ArchivedNotificationRepository archivedNotificationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Test
+    void movesOnlyOldSeenNotificationsAcrossSeveralBatches() throws InterruptedException {
+        User user = new User();
+        user.setEmail("alice@example.com");
+        user.setFullName("Alice");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        entityManager.persist(user);
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 12, 0);
+        for (int i = 0; i < 8; i++) {
+            persistNotification(user, "old" + i, now.minusDays(60).plusMinutes(i), true);
+        }
+        persistNotification(user, "old unseen", now.minusDays(60), false);
+        persistNotification(user, "recent", now.minusDays(1), true);
+        entityManager.flush();
+        entityManager.clear();
+
+        int archived = archiver.archiveNotifications(now.minusDays(30), now);
+
+        assertThat(archived).isEqualTo(8);
+        assertThat(notificationRepository.findAll()).extracting(Notification::getMessage)
+                .containsExactlyInAnyOrder("old unseen", "recent");
+        List<NotificationSummary> history = archivedNotificationRepository.findHistoryPage(user.getId(), null, null,
+                Limit.of(50));
+        assertThat(history).hasSize(8);
+        assertThat(history.get(0).message()).isEqualTo("old7");
+    }
+
+    @Test
+    void rowsChangedAfterTheyWereSelectedAreLeftInPlace() throws InterruptedException {
+        User user = persistUser("bob@example.com");
+        Room room = new Room();
+        room.setName("Boardroom");
+        room.setCapacity(8);
+        entityManager.persist(room);
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 12, 0);
+        persistNotification(user, "archived", now.minusDays(60), true);
+        persistNotification(user, "read again", now.minusDays(60), true);
+        Reservation past = persistReservation(user, room, now.minusDays(120));
+        Reservation rescheduled = persistReservation(user, room, now.minusDays(120));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Between the SELECT of a batch and its move, one row of each table stops qualifying
+        RetentionArchiver racing = archiverChangingRowsAfterSelect(
+                "UPDATE notification SET seen = FALSE WHERE message = 'read again'",
+                "UPDATE reservation SET end_time = '2025-03-02 10:00:00' WHERE id = " + rescheduled.getId());
+
+        assertThat(racing.archiveNotifications(now.minusDays(30), now)).isEqualTo(1);
+        assertThat(racing.archiveReservations(now.minusDays(90), now)).isEqualTo(1);
+
+        assertThat(notificationRepository.findAll()).extracting(Notification::getMessage).containsExactly("read again");
+        assertThat(reservationRepository.findAll()).extracting(Reservation::getId).containsExactly(rescheduled.getId());
+        verify(occupancyIndex).remove(past.getId());
+        verify(occupancyIndex, never()).remove(rescheduled.getId());
+    }
+
+    private RetentionArchiver archiverChangingRowsAfterSelect(String... updates) {
+        JdbcTemplate changing = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                List<T> selected = super.queryForList(sql, elementType, args);
+                for (String update : updates) {
+                    update(update);
+                }
+                return selected;
+            }
+        };
+        return new RetentionArchiver(changing, new NamedParameterJdbcTemplate(dataSource), transactionManager,
+                occupancyIndex, true, Duration.ofDays(30), Duration.ofDays(90), 10, Duration.ZERO);
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFullName("Tester");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        return entityManager.persist(user);
+    }
+
+    private Reservation persistReservation(User user, Room room, LocalDateTime start) {
+        Reservation reservation = new Reservation();
+        reservation.setUser(user);
+        reservation.setRoom(room);
+        reservation.setTimeSlot(new TimeSlot(start, start.plusHours(1)));
+        reservation.setPurpose("Review");
+        reservation.setAttendees(2);
+        return entityManager.persist(reservation);
+    }
+
+    private void persistNotification(User user, String message, LocalDateTime createdAt, boolean seen) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setMessage(message);
+        notification.setCreatedAt(createdAt);
+        notification.setSeen(seen);
+        entityManager.persist(notification);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.reservation.service;
+
+import com.example.reservation.dto.ReservationSlot;
+import com.example.reservation.repository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomOccupancyIndexTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final RoomOccupancyIndex index = new RoomOccupancyIndex(reservationRepository);
+
+    @Test
+    void slotsAreHalfOpen() {
+        index.put(1L, 10L, NINE, NINE.plusHours(1));
+
+        // Ending at 9:00 or starting at 10:00 only touches the booking
+        assertThat(index.overlaps(10L, NINE.minusHours(1), NINE)).isFalse();
+        assertThat(index.overlaps(10L, NINE.plusHours(1), NINE.plusHours(2))).isFalse();
+        assertThat(index.overlaps(10L, NINE.plusMinutes(59), NINE.plusHours(2))).isTrue();
+        assertThat(index.overlaps(10L, NINE.minusHours(1), NINE.plusMinutes(1))).isTrue();
+        assertThat(index.overlaps(10L, NINE.plusMinutes(15), NINE.plusMinutes(30))).isTrue();
+        assertThat(index.overlaps(11L, NINE, NINE.plusHours(1))).isFalse();
+    }
+
+    @Test
+    void aLongBookingIsFoundFarFromItsStart() {
+        // Three days, surrounded by short bookings
+        index.put(1L, 10L, NINE.minusDays(1), NINE.plusDays(2));
+        for (long i = 0; i < 50; i++) {
+            index.put(100 + i, 10L, NINE.plusDays(3).plusMinutes(30 * i), NINE.plusDays(3).plusMinutes(30 * i + 30));
+        }
+
+        assertThat(index.overlaps(10L, NINE.plusDays(1).plusHours(3), NINE.plusDays(1).plusHours(4))).isTrue();
+        assertThat(index.busySlots(10L, NINE.plusDays(1), NINE.plusDays(1).plusHours(1)))
+                .extracting(ReservationSlot::reservationId)
+                .containsExactly(1L);
+        assertThat(index.overlaps(10L, NINE.plusDays(2), NINE.plusDays(3))).isFalse();
+
+        index.remove(1L);
+        assertThat(index.overlaps(10L, NINE.plusDays(1), NINE.plusDays(1).plusHours(1))).isFalse();
+    }
+
+    @Test
+    void putReplacesTheSlotOfAnUpdatedReservation() {
+        index.put(1L, 10L, NINE, NINE.plusHours(1));
+
+        index.put(1L, 10L, NINE.plusHours(5), NINE.plusHours(6));
+        assertThat(index.overlaps(10L, NINE, NINE.plusHours(1))).isFalse();
+        assertThat(index.overlaps(10L, NINE.plusHours(5), NINE.plusHours(6))).isTrue();
+
+        // Moved to another room
+        index.put(1L, 11L, NINE.plusHours(5), NINE.plusHours(6));
+        assertThat(index.overlaps(10L, NINE.plusHours(5), NINE.plusHours(6))).isFalse();
+        assertThat(index.busySlots(11L, NINE, NINE.plusDays(1)))
+                .containsExactly(new ReservationSlot(1L, 11L, NINE.plusHours(5), NINE.plusHours(6)));
+
+        index.remove(1L);
+        assertThat(index.overlaps(11L, NINE, NINE.plusDays(1))).isFalse();
+    }
+
+    @Test
+    void loadKeepsBookingsMadeWhileItRan() {
+        when(reservationRepository.findAllSlots()).thenReturn(List.of(
+                new ReservationSlot(1L, 10L, NINE, NINE.plusHours(1)),
+                // Read before reservation 2 was moved to the afternoon
+                new ReservationSlot(2L, 10L, NINE.plusHours(1), NINE.plusHours(2))));
+        index.put(2L, 10L, NINE.plusHours(5), NINE.plusHours(6));
+
+        assertThat(index.isLoaded()).isFalse();
+        index.load();
+
+        assertThat(index.isLoaded()).isTrue();
+        assertThat(index.busySlots(10L, NINE, NINE.plusDays(1)))
+                .extracting(ReservationSlot::reservationId, ReservationSlot::startTime)
+                .containsExactly(tuple(1L, NINE), tuple(2L, NINE.plusHours(5)));
+    }
+
+    @Test
+    void loadDoesNotBringBackWhatWasDeletedWhileItRan() {
+        index.put(2L, 10L, NINE.plusHours(1), NINE.plusHours(2));
+        when(reservationRepository.findAllSlots()).thenAnswer(invocation -> {
+            List<ReservationSlot> read = List.of(
+                    new ReservationSlot(1L, 10L, NINE, NINE.plusHours(1)),
+                    new ReservationSlot(2L, 10L, NINE.plusHours(1), NINE.plusHours(2)),
+                    new ReservationSlot(3L, 10L, NINE.plusHours(3), NINE.plusHours(4)),
+                    new ReservationSlot(4L, 11L, NINE, NINE.plusHours(1)));
+            // Deleted after the rows were read, before they are merged
+            index.remove(2L);
+            index.remove(3L);
+            index.removeRoom(11L);
+            return read;
+        });
+
+        index.load();
+
+        assertThat(index.busySlots(10L, NINE, NINE.plusDays(1)))
+                .extracting(ReservationSlot::reservationId)
+                .containsExactly(1L);
+        assertThat(index.overlaps(11L, NINE, NINE.plusHours(1))).isFalse();
+
+        // Deletions are only remembered while the load runs
+        index.put(3L, 10L, NINE.plusHours(3), NINE.plusHours(4));
+        assertThat(index.overlaps(10L, NINE.plusHours(3), NINE.plusHours(4))).isTrue();
+    }
+}
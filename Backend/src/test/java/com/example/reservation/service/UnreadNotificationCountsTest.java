@@ -0,0 +1,90 @@
+package com.example.reservation.service;
+
+import com.example.reservation.model.User;
+import com.example.reservation.model.enums.Role;
+import com.example.reservation.repository.NotificationRepository;
+import com.example.reservation.security.CurrentUser;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnreadNotificationCountsTest {
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final UnreadNotificationCounts counts = new UnreadNotificationCounts(notificationRepository, 3);
+
+    @Test
+    void countIsLoadedOnceAndThenFollowsTheWrites() {
+        when(notificationRepository.countByUserIdAndSeenFalse(1L)).thenReturn(5L);
+
+        assertThat(counts.get(1L)).isEqualTo(5);
+        counts.add(1L, 2);
+        assertThat(counts.get(1L)).isEqualTo(7);
+        counts.add(1L, -10);
+        assertThat(counts.get(1L)).isZero();
+        verify(notificationRepository, times(1)).countByUserIdAndSeenFalse(1L);
+    }
+
+    @Test
+    void writesForUsersNotCachedAreLeftToTheirFirstLoad() {
+        counts.add(1L, 1);
+        when(notificationRepository.countByUserIdAndSeenFalse(1L)).thenReturn(1L);
+
+        assertThat(counts.get(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void aCountRacingWithAWriteIsNotCached() {
+        when(notificationRepository.countByUserIdAndSeenFalse(1L)).thenAnswer(invocation -> {
+            // Written while the query runs: it may or may not have been counted
+            counts.add(1L, 1);
+            return 5L;
+        }).thenReturn(6L);
+
+        assertThat(counts.get(1L)).isEqualTo(5);
+        assertThat(counts.get(1L)).isEqualTo(6);
+        assertThat(counts.get(1L)).isEqualTo(6);
+        verify(notificationRepository, times(2)).countByUserIdAndSeenFalse(1L);
+    }
+
+    @Test
+    void aFullCacheEvictsOnlyTheOldestUser() throws InterruptedException {
+        when(notificationRepository.countByUserIdAndSeenFalse(anyLong())).thenReturn(1L);
+        for (long userId = 1; userId <= 3; userId++) {
+            counts.get(userId);
+            Thread.sleep(2);
+        }
+
+        counts.get(4L);
+        counts.get(2L);
+        counts.get(3L);
+        counts.get(4L);
+        verify(notificationRepository, times(4)).countByUserIdAndSeenFalse(anyLong());
+
+        counts.get(1L);
+        verify(notificationRepository, times(2)).countByUserIdAndSeenFalse(1L);
+    }
+
+    @Test
+    void markingAllReadKeepsNotificationsWrittenMeanwhile() {
+        User user = User.builder().id(1L).email("reader@test").role(Role.USER).build();
+        CurrentUser currentUser = mock(CurrentUser.class);
+        when(currentUser.get()).thenReturn(user);
+        NotificationService notificationService = new NotificationService(notificationRepository, currentUser,
+                mock(NotificationStreams.class), mock(NotificationWriter.class), counts);
+        when(notificationRepository.countByUserIdAndSeenFalse(1L)).thenReturn(5L);
+        assertThat(notificationService.getUnreadCount()).isEqualTo(5);
+        // Written after the UPDATE took its snapshot
+        counts.add(1L, 1);
+        when(notificationRepository.markAllSeen(1L)).thenReturn(5);
+
+        assertThat(notificationService.markAllAsRead()).isEqualTo(5);
+
+        assertThat(notificationService.getUnreadCount()).isEqualTo(1);
+    }
+}
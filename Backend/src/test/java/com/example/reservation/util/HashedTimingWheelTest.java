@@ -0,0 +1,47 @@
+package com.example.reservation.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void timeoutsExpireAtTheirTickNeverEarly() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000, 8, 0);
+        wheel.schedule("a", 2500);
+        wheel.schedule("b", 3000);
+        // Several rotations ahead of the 8-tick wheel
+        wheel.schedule("c", 30_000);
+
+        assertThat(wheel.advance(2999)).isEmpty();
+        assertThat(wheel.advance(3000)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.advance(29_999)).isEmpty();
+        assertThat(wheel.advance(45_000)).containsExactly("c");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlinesExpireWithTheNextTick() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000, 8, 0);
+        wheel.advance(10_000);
+        wheel.schedule("late", 2000);
+
+        assertThat(wheel.advance(10_999)).isEmpty();
+        assertThat(wheel.advance(11_000)).containsExactly("late");
+    }
+
+    @Test
+    void cancelledTimeoutsNeverExpire() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000, 8, 0);
+        HashedTimingWheel.Timeout<String> first = wheel.schedule("first", 1000);
+        wheel.schedule("second", 1000);
+        HashedTimingWheel.Timeout<String> third = wheel.schedule("third", 1000);
+
+        assertThat(wheel.cancel(third)).isTrue();
+        assertThat(wheel.cancel(first)).isTrue();
+        assertThat(wheel.cancel(first)).isFalse();
+        assertThat(wheel.advance(1000)).containsExactly("second");
+        assertThat(wheel.size()).isZero();
+    }
+}
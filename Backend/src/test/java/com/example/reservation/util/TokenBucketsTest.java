@@ -0,0 +1,50 @@
+package com.example.reservation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketsTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void bucketEmptiesThenRefillsAtCapacityPerPeriod() {
+        TokenBuckets buckets = new TokenBuckets(4);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(buckets.tryAcquire("ip:10.0.0.1", 10, MINUTE, 0)).isZero();
+        }
+        // Empty: the next token comes after a tenth of the period
+        assertThat(buckets.tryAcquire("ip:10.0.0.1", 10, MINUTE, 0)).isEqualTo(MINUTE / 10);
+        assertThat(buckets.tryAcquire("ip:10.0.0.2", 10, MINUTE, 0)).isZero();
+
+        assertThat(buckets.tryAcquire("ip:10.0.0.1", 10, MINUTE, MINUTE / 10)).isZero();
+        assertThat(buckets.tryAcquire("ip:10.0.0.1", 10, MINUTE, MINUTE / 10)).isPositive();
+    }
+
+    @Test
+    void refundedTokensAreReturnedUpToCapacity() {
+        TokenBuckets buckets = new TokenBuckets(4);
+        buckets.tryAcquire("user:alice", 1, MINUTE, 0);
+        assertThat(buckets.tryAcquire("user:alice", 1, MINUTE, 0)).isPositive();
+
+        buckets.refund("user:alice", 1);
+        buckets.refund("user:alice", 1);
+
+        assertThat(buckets.tryAcquire("user:alice", 1, MINUTE, 0)).isZero();
+        assertThat(buckets.tryAcquire("user:alice", 1, MINUTE, 0)).isPositive();
+    }
+
+    @Test
+    void idleBucketsAreEvicted() {
+        TokenBuckets buckets = new TokenBuckets(4);
+        buckets.tryAcquire("user:alice", 5, MINUTE, 0);
+        buckets.tryAcquire("user:bob", 5, MINUTE, 5 * MINUTE);
+
+        assertThat(buckets.evictIdle(2 * MINUTE, 6 * MINUTE)).isEqualTo(1);
+        assertThat(buckets.size()).isEqualTo(1);
+    }
+}
@@ -35,6 +35,11 @@ export const authApi = {
     return response.data;
   },
   
+  // Revokes the given token on the server
+  logout: async (token: string): Promise<void> => {
+    await api.post('/auth/logout', null, { headers: { Authorization: `Bearer ${token}` } });
+  },
+  
   getCurrentUser: async (): Promise<AuthResponse['user']> => {
     const response = await api.get('/auth/me');
     return response.data;
@@ -14,10 +14,116 @@ export interface CreateNotificationData {
   message: string;
 }
 
+export interface NotificationPage {
+  items: Notification[];
+  nextCursor: string | null;
+}
+
+// Notification as returned by the inbox and the stream
+interface NotificationSummary {
+  id: number;
+  message: string;
+  seen: boolean;
+  createdAt: string;
+}
+
+const STREAM_RETRY_MS = 3000;
+const PAGE_SIZE = 50;
+
+const toNotification = (summary: NotificationSummary): Notification => ({
+  id: String(summary.id),
+  recipientId: '',
+  message: summary.message,
+  read: summary.seen,
+  createdAt: summary.createdAt,
+});
+
+// EventSource cannot send the Authorization header, so the SSE stream is read through fetch
+const readNotificationStream = async (
+  onNotification: (notification: Notification) => void,
+  signal: AbortSignal,
+  lastEventId: string | null
+): Promise<string | null> => {
+  const headers: Record<string, string> = { Accept: 'text/event-stream' };
+  const token = localStorage.getItem('token');
+  if (token) {
+    headers.Authorization = `Bearer ${token}`;
+  }
+  if (lastEventId) {
+    headers['Last-Event-ID'] = lastEventId;
+  }
+  const response = await fetch(`${api.defaults.baseURL}/api/notifications/stream`, { headers, signal });
+  if (!response.ok || !response.body) {
+    throw new Error(`Notification stream failed: ${response.status}`);
+  }
+
+  const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = '';
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) {
+      return lastEventId;
+    }
+    buffer += value;
+    let end;
+    while ((end = buffer.indexOf('\n\n')) >= 0) {
+      const block = buffer.slice(0, end);
+      buffer = buffer.slice(end + 2);
+      let id: string | null = null;
+      let data = '';
+      for (const line of block.split('\n')) {
+        if (line.startsWith('id:')) {
+          id = line.slice(3).trim();
+        } else if (line.startsWith('data:')) {
+          data += line.slice(5);
+        }
+      }
+      if (data) {
+        onNotification(toNotification(JSON.parse(data)));
+      }
+      if (id) {
+        lastEventId = id;
+      }
+    }
+  }
+};
+
 export const notificationApi = {
-  getUserNotifications: async (): Promise<Notification[]> => {
-    const response = await api.get('/api/notifications');
-    return response.data;
+  // Pushes new notifications to the callback until the returned function is called
+  subscribe: (onNotification: (notification: Notification) => void): (() => void) => {
+    const controller = new AbortController();
+    let lastEventId: string | null = null;
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          lastEventId = await readNotificationStream(onNotification, controller.signal, lastEventId);
+        } catch (error) {
+          if (controller.signal.aborted) {
+            return;
+          }
+        }
+        // Reconnect and resume after the last received event
+        await new Promise(resolve => setTimeout(resolve, STREAM_RETRY_MS));
+      }
+    };
+    connect();
+
+    return () => controller.abort();
+  },
+
+  // Newest first; pass the nextCursor of a page to get the following one
+  getUserNotifications: async (before?: string): Promise<NotificationPage> => {
+    const response = await api.get('/api/notifications', { params: { before, limit: PAGE_SIZE } });
+    return {
+      items: response.data.map(toNotification),
+      nextCursor: response.headers['x-next-cursor'] ?? null,
+    };
+  },
+
+  getUnreadCount: async (): Promise<number> => {
+    const response = await api.get('/api/notifications/unread-count');
+    return response.data.count;
   },
 
   markAsRead: async (notificationId: string): Promise<void> => {
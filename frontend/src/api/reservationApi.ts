@@ -16,6 +16,43 @@ export interface Reservation {
   updatedAt: string;
 }
 
+export interface ReservationPage {
+  items: Reservation[];
+  nextCursor: string | null;
+}
+
+// Row of the paginated admin listing
+interface ReservationSummary {
+  id: number;
+  roomId: number;
+  roomName: string;
+  userId: number;
+  userName: string;
+  startTime: string;
+  endTime: string;
+  purpose: string;
+  attendees: number;
+}
+
+const ADMIN_PAGE_SIZE = 50;
+
+const toReservation = (summary: ReservationSummary): Reservation => ({
+  id: String(summary.id),
+  roomId: String(summary.roomId),
+  roomName: summary.roomName,
+  userId: String(summary.userId),
+  userName: summary.userName,
+  date: summary.startTime.slice(0, 10),
+  startTime: summary.startTime.slice(11, 16),
+  endTime: summary.endTime.slice(11, 16),
+  // Stored reservations are confirmed bookings
+  status: 'CONFIRMED',
+  purpose: summary.purpose,
+  attendees: summary.attendees,
+  createdAt: '',
+  updatedAt: '',
+});
+
 export interface CreateReservationData {
   roomId: string;
   date: string;
@@ -26,6 +63,17 @@ export interface CreateReservationData {
   userId?: string;
 }
 
+// A slot kept for the current user for a few minutes, until confirmed, released or expired
+export interface ReservationHold {
+  id: string;
+  roomId: string;
+  userId: string;
+  startTime: string;
+  endTime: string;
+  attendees: number;
+  expiresAt: string;
+}
+
 export interface UpdateReservationData {
   date?: string;
   startTime?: string;
@@ -35,15 +83,23 @@ export interface UpdateReservationData {
   status?: 'PENDING' | 'CONFIRMED' | 'CANCELLED';
 }
 
+// Retries sent with the same key get the original response instead of booking twice
+const idempotencyHeaders = (idempotencyKey?: string) =>
+  idempotencyKey ? { headers: { 'Idempotency-Key': idempotencyKey } } : undefined;
+
 export const reservationApi = {
   getUserReservations: async (): Promise<Reservation[]> => {
     const response = await api.get('/api/reservations/user');
     return response.data;
   },
 
-  getAllReservations: async (): Promise<Reservation[]> => {
-    const response = await api.get('/api/admin/reservations');
-    return response.data;
+  // Ordered by start time from the given date-time; pass the nextCursor of a page to get the following one
+  getAllReservations: async (from?: string, after?: string): Promise<ReservationPage> => {
+    const response = await api.get('/api/admin/reservations', { params: { from, after, limit: ADMIN_PAGE_SIZE } });
+    return {
+      items: response.data.map(toReservation),
+      nextCursor: response.headers['x-next-cursor'] ?? null,
+    };
   },
 
   getReservationById: async (id: string): Promise<Reservation> => {
@@ -51,8 +107,8 @@ export const reservationApi = {
     return response.data;
   },
 
-  createReservation: async (reservationData: CreateReservationData): Promise<Reservation> => {
-    const response = await api.post('/api/reservations', reservationData);
+  createReservation: async (reservationData: CreateReservationData, idempotencyKey?: string): Promise<Reservation> => {
+    const response = await api.post('/api/reservations', reservationData, idempotencyHeaders(idempotencyKey));
     return response.data;
   },
 
@@ -61,6 +117,24 @@ export const reservationApi = {
     return response.data;
   },
 
+  placeHold: async (holdData: Omit<CreateReservationData, 'purpose'>): Promise<ReservationHold> => {
+    const response = await api.post('/api/reservations/holds', holdData);
+    return response.data;
+  },
+
+  confirmHold: async (
+    holdId: string,
+    data: { purpose?: string; attendees?: number },
+    idempotencyKey?: string
+  ): Promise<Reservation> => {
+    const response = await api.post(`/api/reservations/holds/${holdId}/confirm`, data, idempotencyHeaders(idempotencyKey));
+    return response.data;
+  },
+
+  releaseHold: async (holdId: string): Promise<void> => {
+    await api.delete(`/api/reservations/holds/${holdId}`);
+  },
+
   updateReservation: async (id: string, reservationData: UpdateReservationData): Promise<Reservation> => {
     const response = await api.put(`/api/reservations/${id}`, reservationData);
     return response.data;
@@ -24,6 +24,11 @@ export interface TimeSlot {
   isAvailable: boolean;
 }
 
+export interface FreeSlot {
+  startTime: string;
+  endTime: string;
+}
+
 export interface RoomFilter {
   location?: string;
   capacity?: number;
@@ -37,11 +42,21 @@ export const roomApi = {
     return response.data;
   },
 
+  getAvailableRooms: async (start: string, end: string, minCapacity?: number): Promise<Room[]> => {
+    const response = await api.get('/api/rooms/available', { params: { start, end, minCapacity } });
+    return response.data;
+  },
+
   getRoomById: async (id: string): Promise<Room> => {
     const response = await api.get(`/api/rooms/${id}`);
     return response.data;
   },
 
+  getFreeSlots: async (id: string, from: string, to: string, minDuration?: number): Promise<FreeSlot[]> => {
+    const response = await api.get(`/api/rooms/${id}/free-slots`, { params: { from, to, minDuration } });
+    return response.data;
+  },
+
   createRoom: async (roomData: Partial<Room>): Promise<Room> => {
     const response = await api.post('/api/rooms', roomData);
     return response.data;
@@ -106,6 +106,12 @@ export const AuthProvider: React.FC<{ children: React.ReactNode }> = ({ children
   };
   
   const logout = () => {
+    // Revoke the token server-side; the local session is cleared either way
+    const token = localStorage.getItem('token');
+    if (token) {
+      authApi.logout(token).catch(() => undefined);
+    }
+
     // Clear localStorage
     localStorage.removeItem('token');
     localStorage.removeItem('user');
@@ -4,7 +4,8 @@ import { Link, useNavigate } from "react-router-dom";
 import { ThemeToggle } from "./ThemeToggle";
 import { Bell, LogOut, Menu, User, X } from "lucide-react";
 import { Button } from "@/components/ui/button";
-import { useState } from "react";
+import { useEffect, useState } from "react";
+import { notificationApi } from "@/api/notificationApi";
 import { 
   DropdownMenu,
   DropdownMenuContent,
@@ -14,10 +15,25 @@ import {
   DropdownMenuTrigger,
 } from "@/components/ui/dropdown-menu";
 
+const UNREAD_REFRESH_MS = 30000;
+
 export function Navbar() {
   const { user, logout, isAuthenticated } = useAuth();
   const navigate = useNavigate();
   const [isMenuOpen, setIsMenuOpen] = useState(false);
+  const [unreadCount, setUnreadCount] = useState(0);
+
+  // The count is a cached counter on the server, so refreshing it regularly is cheap
+  useEffect(() => {
+    if (!isAuthenticated) {
+      setUnreadCount(0);
+      return;
+    }
+    const refresh = () => notificationApi.getUnreadCount().then(setUnreadCount).catch(() => undefined);
+    refresh();
+    const timer = setInterval(refresh, UNREAD_REFRESH_MS);
+    return () => clearInterval(timer);
+  }, [isAuthenticated]);
 
   const handleLogout = () => {
     logout();
@@ -59,8 +75,13 @@ export function Navbar() {
             {isAuthenticated ? (
               <>
                 <Link to="/notifications">
-                  <Button size="icon" variant="ghost">
+                  <Button size="icon" variant="ghost" className="relative">
                     <Bell className="h-5 w-5" />
+                    {unreadCount > 0 && (
+                      <span className="absolute -right-1 -top-1 flex h-4 min-w-[1rem] items-center justify-center rounded-full bg-blue-500 px-1 text-[10px] text-white">
+                        {unreadCount > 99 ? "99+" : unreadCount}
+                      </span>
+                    )}
                   </Button>
                 </Link>
                 
@@ -105,8 +126,13 @@ export function Navbar() {
           
           {isAuthenticated && (
             <Link to="/notifications" className="mr-2">
-              <Button size="icon" variant="ghost">
+              <Button size="icon" variant="ghost" className="relative">
                 <Bell className="h-5 w-5" />
+                {unreadCount > 0 && (
+                  <span className="absolute -right-1 -top-1 flex h-4 min-w-[1rem] items-center justify-center rounded-full bg-blue-500 px-1 text-[10px] text-white">
+                    {unreadCount > 99 ? "99+" : unreadCount}
+                  </span>
+                )}
               </Button>
             </Link>
           )}
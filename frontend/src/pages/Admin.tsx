@@ -86,6 +86,10 @@ export default function Admin() {
   const [rooms, setRooms] = useState<Room[]>([]);
   const [users, setUsers] = useState<User[]>([]);
   const [reservations, setReservations] = useState<Reservation[]>([]);
+  // The listing is paginated: it starts at this date (today by default) and grows with "Load more"
+  const [reservationsFrom, setReservationsFrom] = useState(new Date().toISOString().split('T')[0]);
+  const [reservationsCursor, setReservationsCursor] = useState<string | null>(null);
+  const [isLoadingMoreReservations, setIsLoadingMoreReservations] = useState(false);
   const [isLoading, setIsLoading] = useState(true);
   const [selectedUser, setSelectedUser] = useState<User | null>(null);
   const [selectedRoom, setSelectedRoom] = useState<Room | null>(null);
@@ -137,8 +141,7 @@ export default function Admin() {
             setUsers(usersData);
             break;
           case "reservations":
-            const reservationsData = await reservationApi.getAllReservations();
-            setReservations(reservationsData);
+            await loadReservations();
             break;
         }
       } catch (error) {
@@ -154,7 +157,35 @@ export default function Admin() {
     };
     
     fetchData();
-  }, [activeTab]);
+  }, [activeTab, reservationsFrom]);
+
+  const loadReservations = async () => {
+    const page = await reservationApi.getAllReservations(reservationsFrom ? `${reservationsFrom}T00:00:00` : undefined);
+    setReservations(page.items);
+    setReservationsCursor(page.nextCursor);
+  };
+
+  const loadMoreReservations = async () => {
+    if (!reservationsCursor) return;
+    setIsLoadingMoreReservations(true);
+    try {
+      const page = await reservationApi.getAllReservations(
+        reservationsFrom ? `${reservationsFrom}T00:00:00` : undefined,
+        reservationsCursor
+      );
+      setReservations(prev => [...prev, ...page.items]);
+      setReservationsCursor(page.nextCursor);
+    } catch (error) {
+      console.error("Error fetching reservations:", error);
+      toast({
+        variant: "destructive",
+        title: "Failed to load reservations",
+        description: "Please try again later.",
+      });
+    } finally {
+      setIsLoadingMoreReservations(false);
+    }
+  };
   
   const handleDelete = async () => {
     if (!selectedItemForDeletion) return;
@@ -256,8 +287,7 @@ export default function Admin() {
       });
       
       // Rafraîchir la liste des réservations
-      const reservationsData = await reservationApi.getAllReservations();
-      setReservations(reservationsData);
+      await loadReservations();
     } catch (error) {
       console.error("Error adding reservation:", error);
       toast({
@@ -752,111 +782,121 @@ export default function Admin() {
         <TabsContent value="reservations">
           <div className="mb-4 flex justify-between items-center">
             <h2 className="text-2xl font-semibold">Manage Reservations</h2>
-            <Dialog>
-              <DialogTrigger asChild>
-                <Button>
-                  <Plus className="mr-2 h-4 w-4" />
-                  Add Reservation
-                </Button>
-              </DialogTrigger>
-              <DialogContent>
-                <DialogHeader>
-                  <DialogTitle>Add New Reservation</DialogTitle>
-                  <DialogDescription>
-                    Create a new reservation.
-                  </DialogDescription>
-                </DialogHeader>
+            <div className="flex items-center gap-2">
+              <Label htmlFor="reservationsFrom" className="whitespace-nowrap">From</Label>
+              <Input
+                id="reservationsFrom"
+                type="date"
+                className="w-auto"
+                value={reservationsFrom}
+                onChange={(e) => setReservationsFrom(e.target.value)}
+              />
+              <Dialog>
+                <DialogTrigger asChild>
+                  <Button>
+                    <Plus className="mr-2 h-4 w-4" />
+                    Add Reservation
+                  </Button>
+                </DialogTrigger>
+                <DialogContent>
+                  <DialogHeader>
+                    <DialogTitle>Add New Reservation</DialogTitle>
+                    <DialogDescription>
+                      Create a new reservation.
+                    </DialogDescription>
+                  </DialogHeader>
                 
-                <div className="grid gap-4 py-4">
-                  <div className="space-y-2">
-                    <Label htmlFor="room">Room</Label>
-                    <select
-                      id="room"
-                      className="form-input"
-                      value={newReservation.roomId}
-                      onChange={(e) => setNewReservation({ ...newReservation, roomId: e.target.value })}
-                    >
-                      <option value="">Select a room</option>
-                      {rooms.map(room => (
-                        <option key={room.id} value={room.id}>
-                          {room.name}
-                        </option>
-                      ))}
-                    </select>
-                  </div>
+                  <div className="grid gap-4 py-4">
+                    <div className="space-y-2">
+                      <Label htmlFor="room">Room</Label>
+                      <select
+                        id="room"
+                        className="form-input"
+                        value={newReservation.roomId}
+                        onChange={(e) => setNewReservation({ ...newReservation, roomId: e.target.value })}
+                      >
+                        <option value="">Select a room</option>
+                        {rooms.map(room => (
+                          <option key={room.id} value={room.id}>
+                            {room.name}
+                          </option>
+                        ))}
+                      </select>
+                    </div>
                   
-                  <div className="space-y-2">
-                    <Label htmlFor="date">Date</Label>
-                    <Input
-                      id="date"
-                      type="date"
-                      value={newReservation.date}
-                      onChange={(e) => setNewReservation({ ...newReservation, date: e.target.value })}
-                    />
-                  </div>
+                    <div className="space-y-2">
+                      <Label htmlFor="date">Date</Label>
+                      <Input
+                        id="date"
+                        type="date"
+                        value={newReservation.date}
+                        onChange={(e) => setNewReservation({ ...newReservation, date: e.target.value })}
+                      />
+                    </div>
                   
-                  <div className="space-y-2">
-                    <Label htmlFor="startTime">Start Time</Label>
-                    <Input
-                      id="startTime"
-                      type="time"
-                      value={newReservation.startTime}
-                      onChange={(e) => setNewReservation({ ...newReservation, startTime: e.target.value })}
-                    />
-                  </div>
+                    <div className="space-y-2">
+                      <Label htmlFor="startTime">Start Time</Label>
+                      <Input
+                        id="startTime"
+                        type="time"
+                        value={newReservation.startTime}
+                        onChange={(e) => setNewReservation({ ...newReservation, startTime: e.target.value })}
+                      />
+                    </div>
                   
-                  <div className="space-y-2">
-                    <Label htmlFor="endTime">End Time</Label>
-                    <Input
-                      id="endTime"
-                      type="time"
-                      value={newReservation.endTime}
-                      onChange={(e) => setNewReservation({ ...newReservation, endTime: e.target.value })}
-                    />
-                  </div>
+                    <div className="space-y-2">
+                      <Label htmlFor="endTime">End Time</Label>
+                      <Input
+                        id="endTime"
+                        type="time"
+                        value={newReservation.endTime}
+                        onChange={(e) => setNewReservation({ ...newReservation, endTime: e.target.value })}
+                      />
+                    </div>
 
-                  <div className="space-y-2">
-                    <Label htmlFor="purpose">Purpose</Label>
-                    <Input
-                      id="purpose"
-                      value={newReservation.purpose}
-                      onChange={(e) => setNewReservation({ ...newReservation, purpose: e.target.value })}
-                      placeholder="Enter the purpose of the reservation"
-                    />
-                  </div>
+                    <div className="space-y-2">
+                      <Label htmlFor="purpose">Purpose</Label>
+                      <Input
+                        id="purpose"
+                        value={newReservation.purpose}
+                        onChange={(e) => setNewReservation({ ...newReservation, purpose: e.target.value })}
+                        placeholder="Enter the purpose of the reservation"
+                      />
+                    </div>
 
-                  <div className="space-y-2">
-                    <Label htmlFor="attendees">Number of Attendees</Label>
-                    <Input
-                      id="attendees"
-                      type="number"
-                      min="1"
-                      value={newReservation.attendees}
-                      onChange={(e) => setNewReservation({ ...newReservation, attendees: parseInt(e.target.value) })}
-                    />
+                    <div className="space-y-2">
+                      <Label htmlFor="attendees">Number of Attendees</Label>
+                      <Input
+                        id="attendees"
+                        type="number"
+                        min="1"
+                        value={newReservation.attendees}
+                        onChange={(e) => setNewReservation({ ...newReservation, attendees: parseInt(e.target.value) })}
+                      />
+                    </div>
                   </div>
-                </div>
                 
-                <DialogFooter>
-                  <DialogClose asChild>
-                    <Button variant="outline">Cancel</Button>
-                  </DialogClose>
-                  <Button 
-                    onClick={handleAddReservation}
-                    disabled={isAddingReservation || !newReservation.roomId || !newReservation.date || !newReservation.startTime || !newReservation.endTime}
-                  >
-                    {isAddingReservation ? (
-                      <>
-                        <Loader className="mr-2 h-4 w-4 animate-spin" />
-                        Adding...
-                      </>
-                    ) : (
-                      "Add Reservation"
-                    )}
-                  </Button>
-                </DialogFooter>
-              </DialogContent>
-            </Dialog>
+                  <DialogFooter>
+                    <DialogClose asChild>
+                      <Button variant="outline">Cancel</Button>
+                    </DialogClose>
+                    <Button 
+                      onClick={handleAddReservation}
+                      disabled={isAddingReservation || !newReservation.roomId || !newReservation.date || !newReservation.startTime || !newReservation.endTime}
+                    >
+                      {isAddingReservation ? (
+                        <>
+                          <Loader className="mr-2 h-4 w-4 animate-spin" />
+                          Adding...
+                        </>
+                      ) : (
+                        "Add Reservation"
+                      )}
+                    </Button>
+                  </DialogFooter>
+                </DialogContent>
+              </Dialog>
+            </div>
           </div>
           
           {isLoading ? (
@@ -940,6 +980,14 @@ export default function Admin() {
               </Table>
             </div>
           )}
+          {!isLoading && reservationsCursor && (
+            <div className="mt-4 flex justify-center">
+              <Button variant="outline" onClick={loadMoreReservations} disabled={isLoadingMoreReservations}>
+                {isLoadingMoreReservations && <Loader className="mr-2 h-4 w-4 animate-spin" />}
+                Load more
+              </Button>
+            </div>
+          )}
         </TabsContent>
       </Tabs>
       
@@ -24,16 +24,35 @@ export default function Notifications() {
   const [notifications, setNotifications] = useState<Notification[]>([]);
   const [isLoading, setIsLoading] = useState(true);
   const [isMarkingAll, setIsMarkingAll] = useState(false);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
+  // From the server: the loaded pages may not hold every unread notification
+  const [unreadCount, setUnreadCount] = useState(0);
   
   useEffect(() => {
     fetchNotifications();
+    // New notifications are pushed by the server instead of being polled
+    return notificationApi.subscribe(notification => {
+      setNotifications(prev =>
+        prev.some(existing => existing.id === notification.id) ? prev : [notification, ...prev]
+      );
+      // The server sends each notification once per stream
+      if (!notification.read) {
+        setUnreadCount(count => count + 1);
+      }
+    });
   }, []);
   
   const fetchNotifications = async () => {
     setIsLoading(true);
     try {
-      const data = await notificationApi.getUserNotifications();
-      setNotifications(data);
+      const [page, count] = await Promise.all([
+        notificationApi.getUserNotifications(),
+        notificationApi.getUnreadCount(),
+      ]);
+      setNotifications(page.items);
+      setNextCursor(page.nextCursor);
+      setUnreadCount(count);
     } catch (error) {
       console.error("Error fetching notifications:", error);
       toast({
@@ -46,9 +65,31 @@ export default function Notifications() {
     }
   };
   
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setIsLoadingMore(true);
+    try {
+      const page = await notificationApi.getUserNotifications(nextCursor);
+      setNotifications(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error("Error fetching notifications:", error);
+      toast({
+        variant: "destructive",
+        title: "Failed to load notifications",
+        description: "Please try again later.",
+      });
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+  
   const markAsRead = async (notificationId: string) => {
     try {
       await notificationApi.markAsRead(notificationId);
+      if (notifications.some(notification => notification.id === notificationId && !notification.read)) {
+        setUnreadCount(count => Math.max(0, count - 1));
+      }
       
       setNotifications(prev => 
         prev.map(notification => 
@@ -79,6 +120,7 @@ export default function Notifications() {
       setNotifications(prev => 
         prev.map(notification => ({ ...notification, read: true }))
       );
+      setUnreadCount(0);
       
       toast({
         title: "All notifications marked as read",
@@ -95,7 +137,6 @@ export default function Notifications() {
     }
   };
   
-  const unreadCount = notifications.filter(notification => !notification.read).length;
   
   if (isLoading) {
     return (
@@ -176,6 +217,14 @@ export default function Notifications() {
               )}
             </Card>
           ))}
+          {nextCursor && (
+            <div className="flex justify-center">
+              <Button variant="outline" onClick={loadMore} disabled={isLoadingMore}>
+                {isLoadingMore && <Loader className="mr-2 h-4 w-4 animate-spin" />}
+                Load more
+              </Button>
+            </div>
+          )}
         </div>
       )}
     </div>
@@ -1,7 +1,7 @@
-import { useEffect, useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import { useParams, useNavigate } from "react-router-dom";
-import { Room, roomApi } from "@/api/roomApi";
-import { CreateReservationData, reservationApi } from "@/api/reservationApi";
+import { FreeSlot, Room, roomApi } from "@/api/roomApi";
+import { CreateReservationData, ReservationHold, reservationApi } from "@/api/reservationApi";
 import { useAuth } from "@/auth/AuthContext";
 import { Button } from "@/components/ui/button";
 import { 
@@ -68,6 +68,21 @@ const schema = yup.object({
 
 type FormData = yup.InferType<typeof schema>;
 
+const SLOT_MINUTES = 30;
+
+// Cut a free gap into bookable steps of SLOT_MINUTES, as "HH:mm" start/end pairs
+const splitIntoSlots = (gap: FreeSlot): { startTime: string; endTime: string }[] => {
+  const slots: { startTime: string; endTime: string }[] = [];
+  const end = new Date(gap.endTime).getTime();
+  for (let start = new Date(gap.startTime).getTime(); start + SLOT_MINUTES * 60000 <= end; start += SLOT_MINUTES * 60000) {
+    slots.push({
+      startTime: new Date(start).toTimeString().slice(0, 5),
+      endTime: new Date(start + SLOT_MINUTES * 60000).toTimeString().slice(0, 5),
+    });
+  }
+  return slots;
+};
+
 export default function RoomDetail() {
   const { id } = useParams<{ id: string }>();
   const navigate = useNavigate();
@@ -77,6 +92,11 @@ export default function RoomDetail() {
   const [selectedDate, setSelectedDate] = useState<Date | undefined>(new Date());
   const [availableTimeSlots, setAvailableTimeSlots] = useState<{ startTime: string; endTime: string }[]>([]);
   const [isReserving, setIsReserving] = useState(false);
+  const [hold, setHold] = useState<ReservationHold | null>(null);
+  // Latest hold, released when the page is left without booking
+  const holdRef = useRef<ReservationHold | null>(null);
+  // Reused when a submit is retried after a timeout, so the booking is made only once
+  const submitKeyRef = useRef<string | null>(null);
   const [selectedImageIndex, setSelectedImageIndex] = useState(0);
   
   const {
@@ -86,12 +106,14 @@ export default function RoomDetail() {
     setValue,
     watch,
     reset,
+    getValues,
   } = useForm<FormData>({
     resolver: yupResolver(schema),
   });
   
   const watchDate = watch("date");
   const watchStartTime = watch("startTime");
+  const watchEndTime = watch("endTime");
   
   useEffect(() => {
     const fetchRoomDetails = async () => {
@@ -104,7 +126,7 @@ export default function RoomDetail() {
         
         // Initialize with today's available time slots
         if (selectedDate) {
-          updateAvailableTimeSlots(selectedDate, roomData);
+          updateAvailableTimeSlots(selectedDate);
         }
       } catch (error) {
         console.error("Error fetching room details:", error);
@@ -122,43 +144,96 @@ export default function RoomDetail() {
     fetchRoomDetails();
   }, [id, navigate]);
   
-  // Update available time slots when date changes
-  const updateAvailableTimeSlots = (date: Date, roomData: Room) => {
+  // Hold the chosen slot while the rest of the form is filled in, so nobody else can take it
+  useEffect(() => {
+    if (!id || !isAuthenticated) return;
+    let cancelled = false;
+
+    const previous = holdRef.current;
+    holdRef.current = null;
+    setHold(null);
+    if (previous) {
+      reservationApi.releaseHold(previous.id).catch(() => undefined);
+    }
+    if (!watchDate || !watchStartTime || !watchEndTime) return;
+
+    reservationApi
+      .placeHold({
+        roomId: id,
+        date: watchDate,
+        startTime: watchStartTime,
+        endTime: watchEndTime,
+        attendees: getValues("attendees") || 1,
+      })
+      .then((placed) => {
+        if (cancelled) {
+          reservationApi.releaseHold(placed.id).catch(() => undefined);
+          return;
+        }
+        holdRef.current = placed;
+        setHold(placed);
+      })
+      .catch((error) => {
+        if (cancelled) return;
+        if (error.response?.status === 409) {
+          toast({
+            variant: "destructive",
+            title: "Slot unavailable",
+            description: "Someone else is booking this slot. Please pick another time.",
+          });
+          if (selectedDate) {
+            updateAvailableTimeSlots(selectedDate);
+          }
+        }
+      });
+
+    return () => {
+      cancelled = true;
+    };
+  }, [id, isAuthenticated, watchDate, watchStartTime, watchEndTime]);
+
+  useEffect(() => {
+    return () => {
+      if (holdRef.current) {
+        reservationApi.releaseHold(holdRef.current.id).catch(() => undefined);
+      }
+    };
+  }, []);
+
+  // Update available time slots when date changes, from the room's free gaps for that day
+  const updateAvailableTimeSlots = async (date: Date) => {
+    if (!id) return;
     const dateString = date.toISOString().split('T')[0];
     setValue("date", dateString);
     
-    const dayAvailability = roomData.availability.find(a => a.date === dateString);
-    
-    if (!dayAvailability) {
-      setAvailableTimeSlots([]);
-      return;
-    }
-    
-    const available = dayAvailability.timeSlots
-      .filter(slot => slot.isAvailable)
-      .map(slot => ({
-        startTime: slot.startTime,
-        endTime: slot.endTime,
-      }));
-    
-    setAvailableTimeSlots(available);
-    
     // Reset time selections
     setValue("startTime", "");
     setValue("endTime", "");
+    
+    try {
+      const nextDay = new Date(date.getTime() + 24 * 60 * 60 * 1000).toISOString().split('T')[0];
+      const freeSlots = await roomApi.getFreeSlots(id, `${dateString}T00:00:00`, `${nextDay}T00:00:00`, SLOT_MINUTES);
+      setAvailableTimeSlots(freeSlots.flatMap(splitIntoSlots));
+    } catch (error) {
+      console.error("Error fetching free slots:", error);
+      setAvailableTimeSlots([]);
+    }
   };
   
   const handleDateSelect = (date: Date | undefined) => {
     if (!date || !room) return;
     
     setSelectedDate(date);
-    updateAvailableTimeSlots(date, room);
+    updateAvailableTimeSlots(date);
   };
   
   const onSubmit = async (data: FormData) => {
     if (!id) return;
     
     setIsReserving(true);
+    if (!submitKeyRef.current) {
+      submitKeyRef.current = crypto.randomUUID();
+    }
     try {
       const reservationData: CreateReservationData = {
         roomId: id,
@@ -169,7 +244,17 @@ export default function RoomDetail() {
         attendees: data.attendees || 1,
       };
       
-      await reservationApi.createReservation(reservationData);
+      if (hold) {
+        await reservationApi.confirmHold(hold.id, {
+          purpose: reservationData.purpose,
+          attendees: reservationData.attendees,
+        }, submitKeyRef.current);
+        holdRef.current = null;
+        setHold(null);
+      } else {
+        await reservationApi.createReservation(reservationData, submitKeyRef.current);
+      }
+      submitKeyRef.current = null;
       
       toast({
         title: "Reservation successful",
@@ -180,6 +265,10 @@ export default function RoomDetail() {
       navigate("/bookings");
     } catch (error) {
       console.error("Error creating reservation:", error);
+      // The server answered: a new attempt is a new request. Without an answer, keep the key for the retry.
+      if ((error as { response?: unknown }).response) {
+        submitKeyRef.current = null;
+      }
       toast({
         variant: "destructive",
         title: "Reservation failed",
@@ -397,6 +486,13 @@ export default function RoomDetail() {
                     </div>
                   </div>
                   
+                  {hold && (
+                    <p className="text-sm text-muted-foreground">
+                      <Clock className="mr-1 inline h-4 w-4" />
+                      Slot held for you until {new Date(hold.expiresAt).toTimeString().slice(0, 5)}
+                    </p>
+                  )}
+                  
                   <div className="space-y-2">
                     <Label htmlFor="attendees">Number of Attendees</Label>
                     <Input